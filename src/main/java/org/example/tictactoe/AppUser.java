@@ -3,10 +3,12 @@ package org.example.tictactoe;
 import jakarta.persistence.*;
 
 @Entity
+@Table(indexes = @Index(name = "idx_app_user_wins", columnList = "wins DESC, username"))
 public class AppUser {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_user_seq")
+    @SequenceGenerator(name = "app_user_seq", sequenceName = "app_user_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true)
@@ -0,0 +1,216 @@
+package org.example.tictactoe.cluster;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.tictactoe.service.ClusterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Entry side of request forwarding. Runs after Spring Security, so the player is already logged in
+// here. A request for a game owned by another node (or for matchmaking, which lives on one node) is
+// replayed against the owner as that player (see ForwardedUserFilter). The answer streams back as
+// it arrives, so SSE and long-polls relay too. Both legs are async: a forwarded request, however
+// long-lived, holds no thread on this node. If the owner can't be reached, the request is served
+// here from the DB instead; the move log keeps two writers from diverging.
+@Component
+public class ClusterForwardingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterForwardingFilter.class);
+
+    // /game/{id}, /game/{move|undo|join|state|replay|stream}/{id}/..., /api/game/{id}/...
+    private static final Pattern GAME_PATH =
+            Pattern.compile("^/(?:game(?:/(?:move|undo|join|state|replay|stream))?|api/game)/(\\d+)(?:/.*)?$");
+    private static final Pattern MATCH_PATH = Pattern.compile("^/game/match(?:/.*)?$");
+
+    private static final List<String> REQUEST_HEADERS = List.of("Content-Type", "Accept", "If-None-Match");
+    // connection-level headers, and the owner's session cookie, which must not replace ours
+    private static final Set<String> SKIPPED_RESPONSE_HEADERS = Set.of("connection", "keep-alive",
+            "transfer-encoding", "te", "trailer", "upgrade", "content-length", "set-cookie", ":status");
+
+    private final ClusterService cluster;
+    private final String secret;
+    private final byte[] secretBytes;
+    private final long timeoutMs;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    public ClusterForwardingFilter(ClusterService cluster,
+                                   @Value("${tictactoe.cluster.secret:}") String secret,
+                                   @Value("${tictactoe.push.timeout-ms:1800000}") long pushTimeoutMs) {
+        this.cluster = cluster;
+        this.secret = secret;
+        this.secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        this.timeoutMs = pushTimeoutMs + 10_000; // outlive the owner's own stream timeout
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // already forwarded once by a peer: serve it, whatever our ring says, rather than bounce it
+        // around. A token that isn't the secret is just a header, and the request is routed as usual
+        return !cluster.isEnabled() || ForwardedUserFilter.fromPeer(request, secretBytes);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Principal principal = request.getUserPrincipal();
+        String target = targetOf(request.getRequestURI().substring(request.getContextPath().length()));
+        if (principal == null || target == null || target.equals(cluster.self())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        forward(request, principal.getName(), target);
+    }
+
+    // owning node for game-scoped paths, null for everything else
+    private String targetOf(String path) {
+        Matcher game = GAME_PATH.matcher(path);
+        if (game.matches()) {
+            return cluster.ownerOf(Long.parseLong(game.group(1)));
+        }
+        return MATCH_PATH.matcher(path).matches() ? cluster.matchmakingNode() : null;
+    }
+
+    private void forward(HttpServletRequest request, String username, String target) throws IOException {
+        byte[] body = request.getInputStream().readAllBytes();
+        String query = request.getQueryString();
+        HttpRequest.Builder upstream = HttpRequest.newBuilder(
+                        URI.create(target + request.getRequestURI() + (query != null ? "?" + query : "")))
+                .method(request.getMethod(), body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body))
+                .header(ForwardedUserFilter.USER_HEADER, username)
+                .header(ForwardedUserFilter.TOKEN_HEADER, secret);
+        for (String name : REQUEST_HEADERS) {
+            String value = request.getHeader(name);
+            if (value != null) {
+                upstream.header(name, value);
+            }
+        }
+
+        AsyncContext async = request.startAsync();
+        async.setTimeout(timeoutMs);
+        client.sendAsync(upstream.build(), HttpResponse.BodyHandlers.ofPublisher())
+                .whenComplete((answer, error) -> {
+                    if (error != null) {
+                        log.warn("Forward of {} to {} failed, serving it locally", request.getRequestURI(), target, error);
+                        async.dispatch(); // runs the normal chain; this filter skips async dispatches
+                        return;
+                    }
+                    relay(answer, async);
+                });
+    }
+
+    private void relay(HttpResponse<Flow.Publisher<List<ByteBuffer>>> answer, AsyncContext async) {
+        HttpServletResponse response = (HttpServletResponse) async.getResponse();
+        response.setStatus(answer.statusCode());
+        answer.headers().map().forEach((name, values) -> {
+            if (!SKIPPED_RESPONSE_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        answer.body().subscribe(new Relay(async));
+    }
+
+    // copies the owner's body to our client chunk by chunk, flushing each so events aren't held back
+    private static final class Relay implements Flow.Subscriber<List<ByteBuffer>> {
+        private final AsyncContext async;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private Flow.Subscription subscription;
+
+        Relay(AsyncContext async) {
+            this.async = async;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            async.addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    finish();
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    finish();
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            try {
+                ServletOutputStream out = async.getResponse().getOutputStream();
+                for (ByteBuffer buffer : buffers) {
+                    byte[] bytes = new byte[buffer.remaining()];
+                    buffer.get(bytes);
+                    out.write(bytes);
+                }
+                out.flush();
+                subscription.request(1);
+            } catch (IOException | IllegalStateException e) {
+                finish(); // our client went away
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            finish();
+        }
+
+        @Override
+        public void onComplete() {
+            finish();
+        }
+
+        private void finish() {
+            if (done.compareAndSet(false, true)) {
+                subscription.cancel();
+                try {
+                    async.complete();
+                } catch (IllegalStateException e) {
+                    // already completed by the container (timeout / disconnect)
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.tictactoe.cluster;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+// Owner side of request forwarding: a peer that already authenticated the player passes the
+// username along with the shared cluster secret, and the request runs as that user. Nothing is
+// stored in a session; the identity lives for this one request.
+public class ForwardedUserFilter extends OncePerRequestFilter {
+
+    public static final String USER_HEADER = "X-Cluster-User";
+    public static final String TOKEN_HEADER = "X-Cluster-Token";
+
+    private final byte[] secret;
+
+    public ForwardedUserFilter(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("tictactoe.cluster.secret must be set when clustering is enabled");
+        }
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String user = request.getHeader(USER_HEADER);
+        if (user != null && fromPeer(request, secret)) {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                    user, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+            SecurityContextHolder.setContext(context);
+        }
+        chain.doFilter(request, response);
+    }
+
+    // carries the shared cluster secret, compared in constant time so timing gives nothing away
+    static boolean fromPeer(HttpServletRequest request, byte[] secret) {
+        String token = request.getHeader(TOKEN_HEADER);
+        return secret.length > 0 && token != null
+                && MessageDigest.isEqual(secret, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
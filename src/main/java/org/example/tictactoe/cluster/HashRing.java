@@ -0,0 +1,81 @@
+package org.example.tictactoe.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// Consistent-hash ring over node base URLs. Each node is placed at pointsPerNode pseudo-random
+// points, a key belongs to the first point at or after its own hash, so games spread evenly and
+// a node joining or leaving only moves the ~1/N of them that land on its points. Immutable.
+public final class HashRing {
+
+    private final List<String> nodes;
+    private final long[] points;    // sorted
+    private final String[] owners;  // owners[i] holds points[i]
+
+    public HashRing(Collection<String> nodes, int pointsPerNode) {
+        this.nodes = nodes.stream().distinct().sorted().toList();
+        int size = this.nodes.size() * pointsPerNode;
+        long[] keyed = new long[size];
+        String[] byPoint = new String[size];
+        int i = 0;
+        for (String node : this.nodes) {
+            for (int p = 0; p < pointsPerNode; p++) {
+                keyed[i] = hash(node + "#" + p);
+                byPoint[i] = node;
+                i++;
+            }
+        }
+
+        // sort points, carrying their owners along
+        Integer[] order = new Integer[size];
+        for (int k = 0; k < size; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keyed[a], keyed[b]));
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (int k = 0; k < size; k++) {
+            points[k] = keyed[order[k]];
+            owners[k] = byPoint[order[k]];
+        }
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    // null on an empty ring
+    public String ownerOf(long key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int i = Arrays.binarySearch(points, mix(key));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return owners[i == points.length ? 0 : i];
+    }
+
+    // FNV-1a over the UTF-8 bytes, then mixed: good spread for near-identical URLs
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    // SplitMix64 finaliser: sequential game ids land far apart on the ring
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.tictactoe.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+// The Caffeine caches from spring.cache.*, made transaction-aware: an evict or put inside a
+// transaction (the stat updates in recordResult, a save) only reaches the cache once it commits,
+// so a reader can't re-cache the old row between the eviction and the commit. Outside a
+// transaction they apply straight away, as before.
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(@Value("${spring.cache.cache-names:users,games}") List<String> cacheNames,
+                                     @Value("${spring.cache.caffeine.spec:}") String spec) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        caffeine.setCacheSpecification(spec);
+        caffeine.setCacheNames(cacheNames);
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
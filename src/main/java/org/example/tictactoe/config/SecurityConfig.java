@@ -1,17 +1,22 @@
 package org.example.tictactoe.config;
 
 import org.example.tictactoe.AppUser;
+import org.example.tictactoe.cluster.ForwardedUserFilter;
 import org.example.tictactoe.repository.AppUserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
@@ -19,11 +24,32 @@ import static org.springframework.security.config.Customizer.withDefaults;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Prometheus scrape endpoint: a ROLE_METRICS account over HTTP basic, since a scraper can't fill
+    // in the login form; checked ahead of the browser chain and never given a session
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    @Order(1)
+    public SecurityFilterChain metricsFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/actuator/prometheus")
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasRole("METRICS"))
+                .httpBasic(withDefaults())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(csrf -> csrf.disable());
+        return http.build();
+    }
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           @Value("${tictactoe.cluster.enabled:false}") boolean clusterEnabled,
+                                           @Value("${tictactoe.cluster.secret:}") String clusterSecret) throws Exception {
+        if (clusterEnabled) {
+            // requests a peer forwarded on behalf of a player it already logged in
+            http.addFilterBefore(new ForwardedUserFilter(clusterSecret), UsernamePasswordAuthenticationFilter.class);
+        }
         http
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/login", "/register", "/error", "/css/**", "/js/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
                         .anyRequest().authenticated()
                 )
                 .formLogin(form -> form
@@ -40,7 +66,7 @@ public class SecurityConfig {
 
 
                 .csrf(csrf -> csrf
-                        .ignoringRequestMatchers("/game/**", "/login", "/register")
+                        .ignoringRequestMatchers("/game/**", "/api/**", "/login", "/register")
                 )
                 .headers(h -> h.frameOptions(f -> f.disable())); // for H2
 
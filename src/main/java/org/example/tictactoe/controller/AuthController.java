@@ -2,6 +2,7 @@ package org.example.tictactoe.controller;
 
 import org.example.tictactoe.AppUser;
 import org.example.tictactoe.repository.AppUserRepository;
+import org.example.tictactoe.service.LeaderboardService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -9,15 +10,19 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 
+import java.util.List;
+
 @Controller
 public class AuthController {
 
     private final AppUserRepository repo;
     private final PasswordEncoder encoder;
+    private final LeaderboardService leaderboard;
 
-    public AuthController(AppUserRepository repo, PasswordEncoder encoder) {
+    public AuthController(AppUserRepository repo, PasswordEncoder encoder, LeaderboardService leaderboard) {
         this.repo = repo;
         this.encoder = encoder;
+        this.leaderboard = leaderboard;
     }
 
     // show login page
@@ -43,7 +48,7 @@ public class AuthController {
 
         user.setPassword(encoder.encode(user.getPassword()));
         user.setRole("ROLE_USER");
-        repo.save(user);
+        leaderboard.refresh(List.of(repo.save(user)));
 
         return "redirect:/login?registered";
     }
@@ -0,0 +1,93 @@
+package org.example.tictactoe.controller;
+
+import org.example.tictactoe.service.GameRuleException;
+import org.example.tictactoe.service.GameService;
+import org.example.tictactoe.service.GameStateEvent;
+import org.example.tictactoe.service.LeaderboardEntry;
+import org.example.tictactoe.service.LeaderboardService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// JSON API next to the page controller, answering with typed records instead of a map per
+// response. Reads never leave memory (engine for state, leaderboard snapshot). A move appends to
+// the move log, a JDBC round trip: with virtual threads on it runs on a virtual thread of its own
+// and the servlet thread goes straight back to the pool; without them it runs on the request
+// thread, since a platform thread would only block on the same JDBC work. Live updates use the
+// page's SSE channel (/game/stream/{id}), which is async too: open connections cost a socket
+// each, not a thread.
+@RestController
+@RequestMapping("/api/game")
+public class GameApiController {
+
+    public record LeaderboardPage(long version, int page, List<LeaderboardEntry> entries) {
+    }
+
+    public record ApiError(String error) {
+    }
+
+    private final GameService gameService;
+    private final LeaderboardService leaderboard;
+    private final Executor moves;
+
+    public GameApiController(GameService gameService, LeaderboardService leaderboard,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.gameService = gameService;
+        this.leaderboard = leaderboard;
+        this.moves = virtualThreads ? virtualThreadExecutor() : Runnable::run;
+    }
+
+    private static Executor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("api-move-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    @GetMapping("/{gameId}")
+    public GameStateEvent state(@PathVariable Long gameId) {
+        return GameStateEvent.of(gameService.getGame(gameId));
+    }
+
+    @PostMapping("/{gameId}/move/{cell}")
+    public CompletableFuture<GameStateEvent> move(@PathVariable Long gameId, @PathVariable int cell,
+                                                  Principal principal) {
+        String username = principal.getName(); // the security context stays on this thread
+        return CompletableFuture.supplyAsync(
+                () -> GameStateEvent.of(gameService.makeMove(gameId, cell, username)), moves);
+    }
+
+    // same per-page ETag as /game/leaderboard-data, so unchanged polls are a 304 with no body
+    @GetMapping("/leaderboard")
+    public ResponseEntity<LeaderboardPage> leaderboard(@RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(defaultValue = "10") int size,
+                                                       WebRequest request) {
+        LeaderboardService.Snapshot snapshot = leaderboard.snapshot();
+        int from = Math.max(page, 0);
+        int rows = Math.min(Math.max(size, 1), 100);
+        String etag = leaderboard.etag(snapshot, from, rows);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (etag != null) {
+            ok.eTag(etag);
+        }
+        return ok.body(new LeaderboardPage(snapshot.version(), from, leaderboard.page(snapshot, from, rows)));
+    }
+
+    // rule violations (wrong turn, unknown game, ...) only; anything else is a server fault and
+    // answers 5xx, so clients and monitoring can tell it apart and retry
+    @ExceptionHandler(GameRuleException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError rejected(GameRuleException e) {
+        return new ApiError(e.getMessage());
+    }
+}
@@ -1,13 +1,32 @@
 package org.example.tictactoe.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.tictactoe.model.BoardVariant;
+import org.example.tictactoe.model.CpuDifficulty;
 import org.example.tictactoe.model.Game;
-import org.example.tictactoe.repository.AppUserRepository;
+import org.example.tictactoe.puzzle.Puzzle;
+import org.example.tictactoe.puzzle.PuzzleDifficulty;
+import org.example.tictactoe.service.GameExportService;
+import org.example.tictactoe.service.GamePage;
 import org.example.tictactoe.service.GameService;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.example.tictactoe.service.GameStateEvent;
+import org.example.tictactoe.service.GameUpdateBroadcaster;
+import org.example.tictactoe.service.LeaderboardEntry;
+import org.example.tictactoe.service.LeaderboardService;
+import org.example.tictactoe.service.MatchmakingService;
+import org.example.tictactoe.service.PuzzleService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.security.Principal;
 import java.util.HashMap;
 import java.util.List;
@@ -18,36 +37,85 @@ import java.util.Map;
 public class GameController {
 
     private final GameService gameService;
-    @Autowired
-    private AppUserRepository userRepo;
+    private final GameUpdateBroadcaster broadcaster;
+    private final LeaderboardService leaderboard;
+    private final MatchmakingService matchmaking;
+    private final PuzzleService puzzles;
+    private final GameExportService exporter;
+    private final int pageSize;
 
 
-    public GameController(GameService gameService, AppUserRepository userRepo) {
+    public GameController(GameService gameService, GameUpdateBroadcaster broadcaster,
+                          LeaderboardService leaderboard, MatchmakingService matchmaking,
+                          PuzzleService puzzles, GameExportService exporter,
+                          @Value("${tictactoe.games.page-size:20}") int pageSize) {
         this.gameService = gameService;
-        this.userRepo = userRepo;
+        this.broadcaster = broadcaster;
+        this.leaderboard = leaderboard;
+        this.matchmaking = matchmaking;
+        this.puzzles = puzzles;
+        this.exporter = exporter;
+        this.pageSize = pageSize;
     }
 
     // 1) list my games
     @GetMapping
-    public String listMyGames(Model model, Principal principal) {
+    public String listMyGames(@RequestParam(required = false) String mine,
+                              @RequestParam(required = false) String open,
+                              Model model, Principal principal) {
         String username = principal.getName();
 
-        List<Game> myGames = gameService.findGamesForUser(username);
-        List<Game> openGames = gameService.findOpenGames(username);
+        // each list pages independently; the cursors come from the previous page's "next"
+        GamePage myGames = gameService.findGamesForUser(username, mine, pageSize);
+        GamePage openGames = gameService.findOpenGames(username, open, pageSize);
 
-        model.addAttribute("games", myGames);
-        model.addAttribute("openGames", openGames);
+        model.addAttribute("games", myGames.games());
+        model.addAttribute("gamesNext", myGames.next());
+        model.addAttribute("openGames", openGames.games());
+        model.addAttribute("openGamesNext", openGames.next());
+        model.addAttribute("mine", mine);
+        model.addAttribute("open", open);
         return "games";
     }
 
 
     // 2) create new game (I am X)
     @PostMapping("/new")
-    public String newGame(@RequestParam(required = false) Boolean cpu, Principal principal) {
-        Game game = gameService.createNewGameForUser(principal.getName(), cpu != null && cpu);
+    public String newGame(@RequestParam(required = false) Boolean cpu,
+                          @RequestParam(required = false) CpuDifficulty difficulty,
+                          @RequestParam(required = false) BoardVariant variant,
+                          Principal principal) {
+        Game game = gameService.createNewGameForUser(principal.getName(), cpu != null && cpu, difficulty, variant);
         return "redirect:/game/" + game.getId();
     }
 
+    // matchmaking: queue up for PvP, the game is created once an opponent is found
+    @PostMapping("/match")
+    @ResponseBody
+    public MatchmakingService.MatchStatus findMatch(@RequestParam(required = false) BoardVariant variant,
+                                                    Principal principal) {
+        return matchmaking.enqueue(principal.getName(), variant);
+    }
+
+    @GetMapping("/match")
+    @ResponseBody
+    public MatchmakingService.MatchStatus matchStatus(Principal principal) {
+        return matchmaking.status(principal.getName());
+    }
+
+    @PostMapping("/match/cancel")
+    @ResponseBody
+    public MatchmakingService.MatchStatus cancelMatch(Principal principal) {
+        return matchmaking.cancel(principal.getName());
+    }
+
+    // pushes a "match" event when the ticket is matched, times out or is cancelled
+    @GetMapping(path = "/match/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter matchStream(Principal principal) {
+        return matchmaking.subscribe(principal.getName());
+    }
+
     @PostMapping("/join/{gameId}")
     public String joinGame(@PathVariable Long gameId, Principal principal) {
         gameService.joinGame(gameId, principal.getName());
@@ -60,7 +128,7 @@ public class GameController {
         Game game = gameService.getGame(id);
         model.addAttribute("gameId", game.getId());
         model.addAttribute("game", game);
-        model.addAttribute("players", userRepo.findTop10ByOrderByWinsDesc());
+        model.addAttribute("players", leaderboard.top(10));
         if (principal != null) {
             model.addAttribute("currentUser", principal.getName());
         }
@@ -78,6 +146,8 @@ public class GameController {
         map.put("board", game.getBoard());
         map.put("currentPlayer", game.getCurrentPlayer());
         map.put("winner", game.getWinner());
+        map.put("version", game.getStateVersion());
+        map.put("clock", GameStateEvent.Clock.of(game));
         return map;
     }
 
@@ -91,6 +161,7 @@ public class GameController {
         map.put("board", game.getBoard());
         map.put("currentPlayer", game.getCurrentPlayer());
         map.put("winner", game.getWinner());
+        map.put("version", game.getStateVersion());
         return map;
     }
 
@@ -104,37 +175,121 @@ public class GameController {
         map.put("currentPlayer", game.getCurrentPlayer());
         map.put("winner", game.getWinner());
         map.put("status", game.getStatus());
+        map.put("boardSize", game.getBoardSize());
+        map.put("winLength", game.getWinLength());
+        map.put("version", game.getStateVersion());
+        map.put("clock", GameStateEvent.Clock.of(game));
+        return map;
+    }
+
+    // long-poll: held until the game is past version since, or a 304 after the long-poll timeout
+    @GetMapping(path = "/state/{gameId}", params = "since")
+    @ResponseBody
+    public DeferredResult<ResponseEntity<GameStateEvent>> awaitState(@PathVariable Long gameId, @RequestParam long since) {
+        return broadcaster.await(gameId, since, () -> GameStateEvent.of(gameService.getGame(gameId)));
+    }
+
+    // rebuilt from the move log, for reviewing a game move by move
+    @GetMapping("/replay/{gameId}")
+    @ResponseBody
+    public Map<String, Object> replay(@PathVariable Long gameId, @RequestParam(required = false) Integer upTo) {
+        Game game = gameService.replay(gameId, upTo);
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("board", game.getBoard());
+        map.put("currentPlayer", game.getCurrentPlayer());
+        map.put("winner", game.getWinner());
+        map.put("moves", game.getLoggedEvents());
+        map.put("boardSize", game.getBoardSize());
+        map.put("winLength", game.getWinLength());
         return map;
     }
 
+    // push channel: one DB read on connect, then every change arrives as an SSE "state" event
+    @GetMapping(path = "/stream/{gameId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter gameStream(@PathVariable Long gameId) {
+        Game game = gameService.getGame(gameId);
+        return broadcaster.subscribe(gameId, GameStateEvent.of(game));
+    }
+
+
+    // the user's whole history as a download, written batch by batch while it is read
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "NDJSON") GameExportService.Format format,
+                       Principal principal, HttpServletResponse response) throws IOException {
+        response.setContentType(format.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"games." + format.extension() + "\"");
+        exporter.export(principal.getName(), format, response.getOutputStream());
+    }
 
     @GetMapping("/leaderboard")
     public String leaderboard(Model model) {
-        model.addAttribute("players", userRepo.findTop10ByOrderByWinsDesc());
+        model.addAttribute("players", leaderboard.top(10));
         return "leaderboard";
     }
 
+    // served from the in-memory snapshot; unchanged polls get a 304 via the page's ETag (pages
+    // beyond the snapshot come from the DB and carry none)
     @GetMapping("/leaderboard-data")
     @ResponseBody
-    public List<Map<String, Object>> leaderboardData() {
-        return userRepo.findTop10ByOrderByWinsDesc()
-                .stream()
-                .map(u -> {
-                    Map<String, Object> m = new HashMap<>();
-                    m.put("username", u.getUsername());
-                    m.put("wins", u.getWins());
-                    m.put("losses", u.getLosses());
-                    m.put("ties", u.getTies());
-                    m.put("gamesPlayed", u.getGamesPlayed());
-                    return m;
-                })
-                .toList();
+    public ResponseEntity<List<LeaderboardEntry>> leaderboardData(@RequestParam(defaultValue = "0") int page,
+                                                                  @RequestParam(defaultValue = "10") int size,
+                                                                  WebRequest request) {
+        LeaderboardService.Snapshot snapshot = leaderboard.snapshot();
+        int from = Math.max(page, 0);
+        int rows = Math.min(Math.max(size, 1), 100);
+        String etag = leaderboard.etag(snapshot, from, rows);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (etag != null) {
+            ok.eTag(etag);
+        }
+        return ok.body(leaderboard.page(snapshot, from, rows));
     }
 
 
     @GetMapping("/puzzle")
     public String puzzlePage() { return "puzzle"; }
 
+    // puzzles are served and checked from the in-memory index; only progress is persisted
+    @GetMapping("/puzzle/next")
+    @ResponseBody
+    public Map<String, Object> nextPuzzle(@RequestParam(defaultValue = "EASY") PuzzleDifficulty difficulty,
+                                          Principal principal) {
+        return puzzleMap(puzzles.current(principal.getName(), difficulty));
+    }
+
+    @PostMapping("/puzzle/{puzzleId}/answer/{cell}")
+    @ResponseBody
+    public Map<String, Object> answerPuzzle(@PathVariable int puzzleId, @PathVariable int cell, Principal principal) {
+        PuzzleService.Answer answer = puzzles.answer(principal.getName(), puzzleId, cell);
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("correct", answer.correct());
+        map.put("solutions", answer.solutions());
+        map.put("next", puzzleMap(answer.next()));
+        return map;
+    }
+
+    private static Map<String, Object> puzzleMap(PuzzleService.Current current) {
+        Puzzle puzzle = current.puzzle();
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", puzzle.id());
+        map.put("difficulty", puzzle.difficulty());
+        map.put("kind", puzzle.kind());
+        map.put("n", puzzle.n());
+        map.put("board", puzzle.board());
+        map.put("currentPlayer", puzzle.toMove());
+        map.put("solved", current.solved());
+        map.put("attempts", current.attempts());
+        map.put("total", current.total());
+        return map;
+    }
+
     @GetMapping("/Awaiting")
     public String toBeDeterminedPage() { return "Awaiting"; }
 
@@ -146,9 +301,12 @@ public class GameController {
 
     //Get for mode redirection
     @GetMapping("/new")
-    public String newGameGet(@RequestParam(required = false) Boolean cpu, Principal principal) {
+    public String newGameGet(@RequestParam(required = false) Boolean cpu,
+                             @RequestParam(required = false) CpuDifficulty difficulty,
+                             @RequestParam(required = false) BoardVariant variant,
+                             Principal principal) {
         boolean vsCpu = cpu != null && cpu;
-        Game game = gameService.createNewGameForUser(principal.getName(), vsCpu);
+        Game game = gameService.createNewGameForUser(principal.getName(), vsCpu, difficulty, variant);
         return "redirect:/game/" + game.getId();
     }
 
@@ -0,0 +1,388 @@
+package org.example.tictactoe.cpu;
+
+import org.example.tictactoe.model.Game;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Iterative-deepening negamax with alpha-beta for boards where a full table is impossible.
+//  - move ordering: transposition-table move first, then the history heuristic
+//  - Zobrist hashing into a fixed-size transposition table (depth-preferred, stale entries
+//    from older searches always replaced)
+//  - hard time budget: the deepest fully completed iteration wins
+// An instance is NOT thread-safe; keep one per worker thread. All working memory is allocated
+// up front, so a search itself does not allocate.
+public class AlphaBetaSearch {
+
+    private static final int MAX_CELLS = Game.MAX_SIZE * Game.MAX_SIZE;
+    private static final int MAX_PLY = 64;
+    private static final int WIN = 1_000_000;
+    private static final int MATE_BOUND = WIN - 1_000;
+    private static final int INFINITY = WIN + 1;
+
+    private static final byte EXACT = 0;
+    private static final byte LOWER = 1;
+    private static final byte UPPER = 2;
+
+    private static final byte EMPTY = 0;
+    private static final byte X = 1;
+    private static final byte O = 2;
+
+    // only cells this close to an existing stone are searched
+    private static final int REACH = 2;
+
+    // [player - 1][cell], fixed seed so keys are stable between runs
+    private static final long[][] ZOBRIST = new long[2][MAX_CELLS];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x7A0B_2157L);
+        for (long[] keys : ZOBRIST) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong();
+            }
+        }
+    }
+
+    // ----- transposition table -----
+    private final int ttMask;
+    private final long[] ttKeys;
+    private final int[] ttScores;
+    private final short[] ttMoves;
+    private final byte[] ttDepths;
+    private final byte[] ttFlags;
+    private final byte[] ttAges;
+    private byte age;
+
+    // ----- position -----
+    private final byte[] board = new byte[MAX_CELLS];
+    private final int[] near = new int[MAX_CELLS]; // stones within REACH of each cell
+    private int size;
+    private int cells;
+    private int winLength;
+    private int stones;
+    private long hash;
+
+    // ----- evaluation windows (every k-long segment of every line), rebuilt when the shape changes -----
+    private int[] windows = new int[0];
+    private int windowCount;
+
+    // ----- search bookkeeping -----
+    private final int[] history = new int[MAX_CELLS];
+    private final int[][] moveLists = new int[MAX_PLY][MAX_CELLS];
+    private final int[][] moveScores = new int[MAX_PLY][MAX_CELLS];
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+    private int completedDepth;
+    private int rootBest;
+
+    // tableEntries is rounded up to a power of two
+    public AlphaBetaSearch(int tableEntries) {
+        int entries = Integer.highestOneBit(Math.max(1024, tableEntries - 1) << 1);
+        ttMask = entries - 1;
+        ttKeys = new long[entries];
+        ttScores = new int[entries];
+        ttMoves = new short[entries];
+        ttDepths = new byte[entries];
+        ttFlags = new byte[entries];
+        ttAges = new byte[entries];
+    }
+
+    // best cell for the side to move in game, or -1 if the board is full or the game is over
+    public int bestMove(Game game, long budgetNanos, int maxDepth) {
+        load(game);
+        if (game.getWinner() != null || stones == cells) {
+            return -1;
+        }
+        if (stones == 0) {
+            return (size / 2) * size + size / 2; // open in the centre
+        }
+
+        byte player = "x".equalsIgnoreCase(game.getCurrentPlayer()) ? X : O;
+        age++;
+        aborted = false;
+        nodes = 0;
+        completedDepth = 0;
+        deadline = System.nanoTime() + budgetNanos;
+
+        int best = firstCandidate();
+        int depthLimit = Math.min(Math.min(maxDepth, MAX_PLY - 1), cells - stones);
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            int score = negamax(depth, -INFINITY, INFINITY, 0, player);
+            if (aborted) {
+                break;
+            }
+            best = rootBest;
+            completedDepth = depth;
+            if (Math.abs(score) >= MATE_BOUND) {
+                break; // forced result found, deeper won't change it
+            }
+        }
+        return best;
+    }
+
+    // depth of the last iteration that finished inside the budget
+    public int completedDepth() {
+        return completedDepth;
+    }
+
+    public long nodes() {
+        return nodes;
+    }
+
+    // ===== search =====
+
+    private int negamax(int depth, int alpha, int beta, int ply, byte player) {
+        if ((++nodes & 255) == 0 && System.nanoTime() > deadline) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (stones == cells) {
+            return 0;
+        }
+        if (depth == 0) {
+            return evaluate(player);
+        }
+
+        int alphaOriginal = alpha;
+        int slot = (int) hash & ttMask;
+        int ttMove = -1;
+        if (ttKeys[slot] == hash) {
+            ttMove = ttMoves[slot];
+            if (ply > 0 && ttDepths[slot] >= depth) {
+                int stored = fromTable(ttScores[slot], ply);
+                byte flag = ttFlags[slot];
+                if (flag == EXACT) return stored;
+                if (flag == LOWER) alpha = Math.max(alpha, stored);
+                else if (flag == UPPER) beta = Math.min(beta, stored);
+                if (alpha >= beta) return stored;
+            }
+        }
+
+        int count = generate(ply, ttMove);
+        if (count == 0) {
+            return evaluate(player);
+        }
+        int[] moves = moveLists[ply];
+        byte opponent = player == X ? O : X;
+        int bestScore = -INFINITY;
+        int bestMove = moves[0];
+
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(ply, i, count);
+            place(move, player);
+            int score = completesLine(move, player)
+                    ? WIN - ply - 1
+                    : -negamax(depth - 1, -beta, -alpha, ply + 1, opponent);
+            remove(move, player);
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                history[move] += depth * depth;
+                break;
+            }
+        }
+
+        if (ply == 0) {
+            rootBest = bestMove;
+        }
+        byte flag = bestScore <= alphaOriginal ? UPPER : bestScore >= beta ? LOWER : EXACT;
+        store(slot, depth, toTable(bestScore, ply), flag, bestMove);
+        return bestScore;
+    }
+
+    // candidates into moveLists[ply] with ordering scores; the table move sorts first
+    private int generate(int ply, int ttMove) {
+        int[] moves = moveLists[ply];
+        int[] scores = moveScores[ply];
+        boolean small = cells <= 16; // tiny boards: everything is a candidate
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (board[cell] == EMPTY && (small || near[cell] > 0)) {
+                moves[count] = cell;
+                scores[count] = cell == ttMove ? Integer.MAX_VALUE : history[cell] + near[cell];
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // lazy selection sort: most cutoffs happen in the first few moves
+    private int pickNext(int ply, int from, int count) {
+        int[] moves = moveLists[ply];
+        int[] scores = moveScores[ply];
+        int best = from;
+        for (int i = from + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        int score = scores[best];
+        moves[best] = moves[from];
+        scores[best] = scores[from];
+        moves[from] = move;
+        scores[from] = score;
+        return move;
+    }
+
+    private int firstCandidate() {
+        return pickNext(0, 0, generate(0, -1));
+    }
+
+    // depth-preferred, but anything left over from an earlier search is fair game
+    private void store(int slot, int depth, int score, byte flag, int move) {
+        if (ttKeys[slot] != hash && ttAges[slot] == age && ttDepths[slot] > depth) {
+            return;
+        }
+        ttKeys[slot] = hash;
+        ttScores[slot] = score;
+        ttMoves[slot] = (short) move;
+        ttDepths[slot] = (byte) depth;
+        ttFlags[slot] = flag;
+        ttAges[slot] = age;
+    }
+
+    // win scores are stored relative to the node, not the root
+    private static int toTable(int score, int ply) {
+        if (score >= MATE_BOUND) return score + ply;
+        if (score <= -MATE_BOUND) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE_BOUND) return score - ply;
+        if (score <= -MATE_BOUND) return score + ply;
+        return score;
+    }
+
+    // ===== evaluation =====
+
+    // sum over all k-windows that only one side occupies, 10^stones each, from player's view
+    private int evaluate(byte player) {
+        int score = 0;
+        for (int w = 0; w < windowCount; w++) {
+            int base = w * winLength;
+            int xs = 0;
+            int os = 0;
+            for (int i = 0; i < winLength; i++) {
+                byte stone = board[windows[base + i]];
+                if (stone == X) xs++;
+                else if (stone == O) os++;
+            }
+            if (xs > 0 && os == 0) score += WEIGHTS[xs];
+            else if (os > 0 && xs == 0) score -= WEIGHTS[os];
+        }
+        return player == X ? score : -score;
+    }
+
+    private static final int[] WEIGHTS = {0, 1, 10, 100, 1_000, 10_000, 100_000, 100_000, 100_000,
+            100_000, 100_000, 100_000, 100_000, 100_000, 100_000, 100_000};
+
+    // ===== board =====
+
+    private void load(Game game) {
+        int newSize = game.getBoardSize();
+        int newWin = game.getWinLength();
+        if (newSize != size || newWin != winLength) {
+            size = newSize;
+            winLength = newWin;
+            cells = size * size;
+            buildWindows();
+        }
+
+        Arrays.fill(board, 0, cells, EMPTY);
+        Arrays.fill(near, 0, cells, 0);
+        Arrays.fill(history, 0, cells, 0);
+        stones = 0;
+        // mix the board shape in so a 4x4 and a 15x15 position never share a key
+        hash = mix(((long) size << 8) | winLength);
+        for (int cell = 0; cell < cells; cell++) {
+            if (game.hasX(cell)) place(cell, X);
+            else if (game.hasO(cell)) place(cell, O);
+        }
+    }
+
+    private void place(int cell, byte player) {
+        board[cell] = player;
+        hash ^= ZOBRIST[player - 1][cell];
+        stones++;
+        touchNeighbours(cell, 1);
+    }
+
+    private void remove(int cell, byte player) {
+        board[cell] = EMPTY;
+        hash ^= ZOBRIST[player - 1][cell];
+        stones--;
+        touchNeighbours(cell, -1);
+    }
+
+    private void touchNeighbours(int cell, int delta) {
+        int row = cell / size;
+        int col = cell % size;
+        for (int r = Math.max(0, row - REACH); r <= Math.min(size - 1, row + REACH); r++) {
+            for (int c = Math.max(0, col - REACH); c <= Math.min(size - 1, col + REACH); c++) {
+                near[r * size + c] += delta;
+            }
+        }
+    }
+
+    private boolean completesLine(int cell, byte player) {
+        int row = cell / size;
+        int col = cell % size;
+        return run(row, col, 0, 1, player) + run(row, col, 0, -1, player) + 1 >= winLength
+                || run(row, col, 1, 0, player) + run(row, col, -1, 0, player) + 1 >= winLength
+                || run(row, col, 1, 1, player) + run(row, col, -1, -1, player) + 1 >= winLength
+                || run(row, col, 1, -1, player) + run(row, col, -1, 1, player) + 1 >= winLength;
+    }
+
+    private int run(int row, int col, int dr, int dc, byte player) {
+        int count = 0;
+        for (int r = row + dr, c = col + dc;
+             count < winLength - 1 && r >= 0 && r < size && c >= 0 && c < size && board[r * size + c] == player;
+             r += dr, c += dc) {
+            count++;
+        }
+        return count;
+    }
+
+    private void buildWindows() {
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        int[] buffer = new int[4 * cells * winLength];
+        int count = 0;
+        for (int[] d : directions) {
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int endRow = row + d[0] * (winLength - 1);
+                    int endCol = col + d[1] * (winLength - 1);
+                    if (endRow < 0 || endRow >= size || endCol < 0 || endCol >= size) {
+                        continue;
+                    }
+                    for (int i = 0; i < winLength; i++) {
+                        buffer[count * winLength + i] = (row + d[0] * i) * size + (col + d[1] * i);
+                    }
+                    count++;
+                }
+            }
+        }
+        windows = buffer;
+        windowCount = count;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.tictactoe.cpu;
+
+// Picks the CPU's next cell on a 3x3 board given as bit masks (bit i = cell i).
+// Implementations must not allocate: they run on every CPU reply and in bulk self-play.
+public interface CpuStrategy {
+
+    // mine = cells of the side to move, theirs = the opponent's; returns -1 if the board is full
+    int chooseMove(int mine, int theirs);
+}
@@ -0,0 +1,13 @@
+package org.example.tictactoe.cpu;
+
+import org.example.tictactoe.model.Game;
+
+// the original CPU: lowest free cell. Kept as a baseline opponent.
+public class FirstEmptyStrategy implements CpuStrategy {
+
+    @Override
+    public int chooseMove(int mine, int theirs) {
+        int empty = ~(mine | theirs) & Game.FULL_MASK;
+        return empty == 0 ? -1 : Integer.numberOfTrailingZeros(empty);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.tictactoe.cpu;
+
+import org.example.tictactoe.model.CpuDifficulty;
+import org.example.tictactoe.model.Game;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Table-driven perfect play, optionally "blundering" into a random free cell to make it beatable.
+public class PerfectPlayStrategy implements CpuStrategy {
+
+    private static final Map<CpuDifficulty, CpuStrategy> BY_DIFFICULTY = new EnumMap<>(CpuDifficulty.class);
+
+    static {
+        for (CpuDifficulty difficulty : CpuDifficulty.values()) {
+            BY_DIFFICULTY.put(difficulty, new PerfectPlayStrategy(difficulty.getBlunderChance()));
+        }
+    }
+
+    private final double blunderChance;
+
+    public PerfectPlayStrategy(double blunderChance) {
+        this.blunderChance = blunderChance;
+    }
+
+    // games created before difficulties existed have none: they get the full-strength CPU
+    public static CpuStrategy forDifficulty(CpuDifficulty difficulty) {
+        return BY_DIFFICULTY.get(difficulty == null ? CpuDifficulty.HARD : difficulty);
+    }
+
+    @Override
+    public int chooseMove(int mine, int theirs) {
+        int empty = ~(mine | theirs) & Game.FULL_MASK;
+        if (empty == 0) {
+            return PerfectPlayTable.NO_MOVE;
+        }
+        if (blunderChance > 0 && ThreadLocalRandom.current().nextDouble() < blunderChance) {
+            return randomCell(empty);
+        }
+        return PerfectPlayTable.bestMove(mine, theirs);
+    }
+
+    // pick the n-th set bit of the empty mask
+    private static int randomCell(int empty) {
+        int skip = ThreadLocalRandom.current().nextInt(Integer.bitCount(empty));
+        for (int i = 0; i < skip; i++) {
+            empty &= empty - 1;
+        }
+        return Integer.numberOfTrailingZeros(empty);
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.tictactoe.cpu;
+
+import org.example.tictactoe.model.Game;
+
+import java.util.Arrays;
+
+// Transposition table for every reachable 3x3 position, solved once by negamax when the class
+// loads (~5,500 positions, a few ms). Entries are indexed by (mine << 9) | theirs from the point
+// of view of the side to move, so a lookup is a single array read.
+public final class PerfectPlayTable {
+
+    public static final int NO_MOVE = -1;
+
+    private static final int CELLS = 9;
+    private static final int SIZE = 1 << (2 * CELLS);
+    private static final byte UNSOLVED = Byte.MIN_VALUE;
+
+    // best cell for the side to move, or NO_MOVE for finished positions
+    private static final byte[] BEST = new byte[SIZE];
+    // > 0: side to move wins, < 0: loses, 0: draw; |score| = 10 - plies left, so faster wins score higher
+    private static final byte[] SCORE = new byte[SIZE];
+    private static int positions;
+
+    static {
+        Arrays.fill(SCORE, UNSOLVED);
+        solve(0, 0);
+    }
+
+    private PerfectPlayTable() {
+    }
+
+    public static int bestMove(int mine, int theirs) {
+        return BEST[key(mine, theirs)];
+    }
+
+    public static int score(int mine, int theirs) {
+        return SCORE[key(mine, theirs)];
+    }
+
+    // number of distinct positions the table covers
+    public static int positions() {
+        return positions;
+    }
+
+    private static int key(int mine, int theirs) {
+        return (mine << CELLS) | theirs;
+    }
+
+    private static int solve(int mine, int theirs) {
+        int key = key(mine, theirs);
+        if (SCORE[key] != UNSOLVED) {
+            return SCORE[key]; // distance-to-end scores don't depend on how we got here
+        }
+        positions++;
+
+        int score;
+        int best = NO_MOVE;
+        int empty = ~(mine | theirs) & Game.FULL_MASK;
+        if (Game.isWinningMask(theirs)) {
+            score = -10;                 // opponent just completed a line
+        } else if (empty == 0) {
+            score = 0;                   // full board, draw
+        } else {
+            score = Integer.MIN_VALUE;
+            for (int moves = empty; moves != 0; moves &= moves - 1) {
+                int cell = Integer.numberOfTrailingZeros(moves);
+                int value = -solve(theirs, mine | (1 << cell));
+                // a win further away is worth one less than a win right now
+                value = value > 0 ? value - 1 : value < 0 ? value + 1 : 0;
+                if (value > score) {
+                    score = value;
+                    best = cell;
+                }
+            }
+        }
+
+        SCORE[key] = (byte) score;
+        BEST[key] = (byte) best;
+        return score;
+    }
+}
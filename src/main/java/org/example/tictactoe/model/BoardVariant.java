@@ -0,0 +1,24 @@
+package org.example.tictactoe.model;
+
+// board shapes offered when creating a game
+public enum BoardVariant {
+    CLASSIC(3, 3),
+    FOUR(4, 4),
+    GOMOKU(15, 5);
+
+    private final int size;
+    private final int winLength;
+
+    BoardVariant(int size, int winLength) {
+        this.size = size;
+        this.winLength = winLength;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+}
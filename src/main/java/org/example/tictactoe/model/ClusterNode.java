@@ -0,0 +1,33 @@
+package org.example.tictactoe.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import java.time.LocalDateTime;
+
+// Membership row of one app node: its base URL as peers reach it, and its last heartbeat.
+// A node counts as live while its heartbeat is recent; a clean shutdown deletes the row.
+@Entity
+public class ClusterNode {
+
+    @Id
+    private String url;
+
+    private LocalDateTime lastSeen;
+
+    protected ClusterNode() {
+    }
+
+    public ClusterNode(String url, LocalDateTime lastSeen) {
+        this.url = url;
+        this.lastSeen = lastSeen;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public LocalDateTime getLastSeen() {
+        return lastSeen;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.tictactoe.model;
+
+// how often the CPU ignores the perfect move and plays a random one instead
+public enum CpuDifficulty {
+    EASY(0.7),
+    MEDIUM(0.3),
+    HARD(0.0);
+
+    private final double blunderChance;
+
+    CpuDifficulty(double blunderChance) {
+        this.blunderChance = blunderChance;
+    }
+
+    public double getBlunderChance() {
+        return blunderChance;
+    }
+}
@@ -2,51 +2,142 @@ package org.example.tictactoe.model;
 
 import jakarta.persistence.*;
 import org.example.tictactoe.AppUser;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Entity
+// list pages filter on status or player and page newest-first by (createdAt, id); the reaper
+// looks for idle IN_PROGRESS games by (status, lastActivityAt)
+@Table(indexes = {
+        @Index(name = "idx_game_status_created", columnList = "status, createdAt DESC, id DESC"),
+        @Index(name = "idx_game_status_activity", columnList = "status, lastActivityAt"),
+        @Index(name = "idx_game_player_x_created", columnList = "playerX_id, createdAt DESC, id DESC"),
+        @Index(name = "idx_game_player_o_created", columnList = "playerO_id, createdAt DESC, id DESC")
+})
 public class Game {
-    private static final int BOARD_SIZE = 9;
+    public static final int CLASSIC_SIZE = 3;
+    public static final int MAX_SIZE = 15; // keeps every cell index in one unsigned byte
+    private static final int CELLS_3X3 = CLASSIC_SIZE * CLASSIC_SIZE;
     private static final String EMPTY_CELL = "-";
     private static final String PLAYER_X = "x";
     private static final String PLAYER_O = "o";
     private static final String DRAW = "Draw";
 
+    // 3x3 fast path: bit i set = cell i taken, cells numbered 0..8 row by row
+    public static final int FULL_MASK = (1 << CELLS_3X3) - 1;
+    private static final int[] WIN_LINES = {
+            0b000_000_111, 0b000_111_000, 0b111_000_000, // rows
+            0b001_001_001, 0b010_010_010, 0b100_100_100, // columns
+            0b100_010_001, 0b001_010_100                 // diagonals
+    };
+    // WINNING[mask] is true when mask contains a full line, built once for all 512 masks
+    private static final boolean[] WINNING = new boolean[1 << CELLS_3X3];
+
+    // row/column steps for the four line directions: horizontal, vertical, both diagonals
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    static {
+        for (int mask = 0; mask < WINNING.length; mask++) {
+            for (int line : WIN_LINES) {
+                if ((mask & line) == line) {
+                    WINNING[mask] = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    // pooled sequence: one nextval per 50 games, and inserts can be batched (IDENTITY can't)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_seq")
+    @SequenceGenerator(name = "game_seq", sequenceName = "game_seq", allocationSize = 50)
     private Long id;
 
+    // optimistic locking: a write based on a stale copy fails instead of overwriting
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
     //who’s playing
     @ManyToOne
     private AppUser playerX;
     @ManyToOne
     private AppUser playerO;
-    private String status; // NEW, IN_PROGRESS, FINISHED
+    private String status; // NEW, WAITING, IN_PROGRESS, FINISHED; EXPIRED / ABANDONED when the reaper closes it
     private LocalDateTime createdAt;
-
-    @ElementCollection(fetch = FetchType.EAGER)
-    private List<Integer> moveHistory = new ArrayList<>();
-
-    @ElementCollection(fetch = FetchType.EAGER)
-    private List<String> board = new ArrayList<>();
+    // last move, take-back or join; null until the first one (then createdAt stands in)
+    private LocalDateTime lastActivityAt;
+
+    // N x N board, k in a row wins
+    @ColumnDefault("3")
+    private int boardSize = CLASSIC_SIZE;
+    @ColumnDefault("3")
+    private int winLength = CLASSIC_SIZE;
+
+    // board lives in two bitsets on the game row (1 bit per cell, 29 bytes at 15x15), no side tables
+    @Column(length = 32)
+    private byte[] xBits;
+    @Column(length = 32)
+    private byte[] oBits;
+
+    // one byte per move in play order; only the first moveCount bytes are meaningful
+    @Column(length = MAX_SIZE * MAX_SIZE)
+    private byte[] moves;
+    @ColumnDefault("0")
+    private int moveCount;
+
+    // how many GameMove log entries this row already reflects; later entries are replayed on load
+    @ColumnDefault("0")
+    private int loggedEvents;
+
+    // bumped by every change a watcher can see (move, take-back, join, finish); long-poll clients
+    // send back the last one they saw. Replaying log entries bumps it too, so it never goes back.
+    @ColumnDefault("0")
+    private long stateVersion;
 
     private  boolean vsCpu;
 
+    @Enumerated(EnumType.STRING)
+    private CpuDifficulty cpuDifficulty; // only set for vsCpu games
+
     private String currentPlayer;
     private String winner;
 
+    // PvP clocks: each side's remaining time bank plus a limit per move (0 = none). The side to
+    // move has been thinking since turnStartedAt (epoch ms, 0 = clock not running); running out
+    // of either loses the game on time (timeForfeit).
+    @ColumnDefault("0")
+    private long xTimeLeftMs;
+    @ColumnDefault("0")
+    private long oTimeLeftMs;
+    @ColumnDefault("0")
+    private long moveLimitMs;
+    @ColumnDefault("0")
+    private long turnStartedAt;
+    @ColumnDefault("false")
+    private boolean timeForfeit;
+
     public Game() {
     }
 
     public void initialize() {
-        board.clear();
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            board.add(EMPTY_CELL);
+        initialize(boardSize, winLength);
+    }
+
+    public void initialize(int size, int winLength) {
+        if (size < CLASSIC_SIZE || size > MAX_SIZE || winLength < CLASSIC_SIZE || winLength > size) {
+            throw new IllegalArgumentException("Unsupported board " + size + "x" + size + ", " + winLength + " in a row");
         }
-        moveHistory.clear();
+        this.boardSize = size;
+        this.winLength = winLength;
+        xBits = new byte[bytesFor(size)];
+        oBits = new byte[bytesFor(size)];
+        moves = new byte[size * size];
+        moveCount = 0;
         currentPlayer = PLAYER_X;
         winner = null;
 
@@ -59,18 +150,41 @@ public class Game {
         }
     }
 
+    // back to an empty board of the same size, reusing the arrays: bulk self-play keeps one
+    // Game per thread and plays millions of games through it without allocating
+    public void reset() {
+        fillDefaults();
+        Arrays.fill(xBits, (byte) 0);
+        Arrays.fill(oBits, (byte) 0);
+        moveCount = 0;
+        currentPlayer = PLAYER_X;
+        winner = null;
+        status = "IN_PROGRESS";
+    }
+
+    // rows written before variable board sizes existed
+    @PostLoad
+    private void fillDefaults() {
+        if (boardSize == 0) boardSize = CLASSIC_SIZE;
+        if (winLength == 0) winLength = CLASSIC_SIZE;
+        if (xBits == null) xBits = new byte[bytesFor(boardSize)];
+        if (oBits == null) oBits = new byte[bytesFor(boardSize)];
+        if (moves == null) moves = new byte[boardSize * boardSize];
+    }
+
     public boolean makeMove(int position) {
         if (!isValidMove(position)) {
             return false;
         }
 
-        board.set(position, currentPlayer);
-        moveHistory.add(position);
+        byte[] bits = PLAYER_X.equals(currentPlayer) ? xBits : oBits;
+        set(bits, position);
+        moves[moveCount++] = (byte) position;
 
-        if (isWin()) {
+        if (completesLine(position, bits)) {
             winner = currentPlayer;
             status = "FINISHED";
-        } else if (isDraw()) {
+        } else if (moveCount == getCellCount()) {
             winner = DRAW;
             status = "FINISHED";
         } else {
@@ -82,62 +196,252 @@ public class Game {
     }
 
     private boolean isValidMove(int position) {
-        if (position < 0 || position >= BOARD_SIZE) {
+        if (position < 0 || position >= getCellCount()) {
             return false;
         }
-        if (!board.get(position).equals(EMPTY_CELL)) {
+        if (get(xBits, position) || get(oBits, position)) {
             return false;
         }
-        if (winner != null) {
+        if (winner != null || isClosed()) {
             return false;
         }
         return true;
     }
 
+    // closed without a result by GameReaper: nothing can be played any more
+    public boolean isClosed() {
+        return "EXPIRED".equals(status) || "ABANDONED".equals(status);
+    }
+
+    // ===== clocks =====
+
+    // give both sides a bankMs time bank and moveLimitMs per move; the clock starts with startTurn
+    public void setClock(long bankMs, long moveLimitMs) {
+        this.xTimeLeftMs = bankMs;
+        this.oTimeLeftMs = bankMs;
+        this.moveLimitMs = moveLimitMs;
+    }
+
+    public boolean hasClock() {
+        return xTimeLeftMs > 0 || oTimeLeftMs > 0 || moveLimitMs > 0;
+    }
+
+    public boolean isClockRunning() {
+        return turnStartedAt > 0 && winner == null && "IN_PROGRESS".equals(status);
+    }
+
+    // the side to move starts thinking now
+    public void startTurn(long nowMs) {
+        if (hasClock()) {
+            turnStartedAt = nowMs;
+        }
+    }
+
+    // when the side to move loses on time: the sooner of its bank and the move limit running out
+    public long getTurnDeadline() {
+        if (!isClockRunning()) {
+            return Long.MAX_VALUE;
+        }
+        long bank = timeLeftMs(currentPlayer);
+        boolean banked = xTimeLeftMs > 0 || oTimeLeftMs > 0; // else a move limit only
+        long allowed = !banked ? moveLimitMs : moveLimitMs > 0 ? Math.min(bank, moveLimitMs) : bank;
+        return turnStartedAt + allowed;
+    }
+
+    // a move was just played at nowMs: charge the side that made it, start the other side's turn
+    public void punchClock(long nowMs) {
+        if (turnStartedAt == 0) {
+            return;
+        }
+        String mover = moveCount % 2 == 1 ? PLAYER_X : PLAYER_O;
+        long spent = Math.max(0, nowMs - turnStartedAt);
+        if (PLAYER_X.equals(mover)) {
+            xTimeLeftMs = Math.max(0, xTimeLeftMs - spent);
+        } else {
+            oTimeLeftMs = Math.max(0, oTimeLeftMs - spent);
+        }
+        turnStartedAt = winner == null ? nowMs : 0;
+    }
+
+    // the side to move ran out of time: the other side wins
+    public void forfeitOnTime() {
+        winner = PLAYER_X.equals(currentPlayer) ? PLAYER_O : PLAYER_X;
+        status = "FINISHED";
+        timeForfeit = true;
+        turnStartedAt = 0;
+    }
+
+    public boolean isTimeForfeit() {
+        return timeForfeit;
+    }
+
+    // the clocks a closed game ended with (GameArchive keeps them); they never run again
+    public void setFinalClock(long xTimeLeftMs, long oTimeLeftMs, long moveLimitMs, boolean timeForfeit) {
+        this.xTimeLeftMs = xTimeLeftMs;
+        this.oTimeLeftMs = oTimeLeftMs;
+        this.moveLimitMs = moveLimitMs;
+        this.turnStartedAt = 0;
+        this.timeForfeit = timeForfeit;
+    }
+
+    // the bank as of the last punch; the side to move is spending it since turnStartedAt
+    public long timeLeftMs(String player) {
+        return PLAYER_X.equals(player) ? xTimeLeftMs : oTimeLeftMs;
+    }
+
+    public long getTurnStartedAt() {
+        return turnStartedAt;
+    }
+
+    public long getMoveLimitMs() {
+        return moveLimitMs;
+    }
+
     private void switchPlayer() {
         currentPlayer = currentPlayer.equals(PLAYER_X) ? PLAYER_O : PLAYER_X;
     }
 
+    // only lines through the last placed cell can have just been completed, so a move
+    // costs at most 4 directions x 2 x (winLength - 1) probes whatever the board size
+    private boolean completesLine(int cell, byte[] bits) {
+        if (isClassic()) {
+            return WINNING[mask(bits)];
+        }
+        int row = cell / boardSize;
+        int col = cell % boardSize;
+        for (int[] d : DIRECTIONS) {
+            int run = 1 + count(bits, row, col, d[0], d[1]) + count(bits, row, col, -d[0], -d[1]);
+            if (run >= winLength) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // consecutive cells of bits starting next to (row, col) and walking in (dr, dc)
+    private int count(byte[] bits, int row, int col, int dr, int dc) {
+        int run = 0;
+        for (int r = row + dr, c = col + dc;
+             run < winLength - 1 && r >= 0 && r < boardSize && c >= 0 && c < boardSize && get(bits, r * boardSize + c);
+             r += dr, c += dc) {
+            run++;
+        }
+        return run;
+    }
+
     public boolean isWin() {
-        int[][] lines = {
-                {0, 1, 2}, {3, 4, 5}, {6, 7, 8},
-                {0, 3, 6}, {1, 4, 7}, {2, 5, 8},
-                {0, 4, 8}, {2, 4, 6}
-        };
-
-        for (int[] line : lines) {
-            if (!board.get(line[0]).equals(EMPTY_CELL) &&
-                    board.get(line[0]).equals(board.get(line[1])) &&
-                    board.get(line[1]).equals(board.get(line[2]))) {
+        if (isClassic()) {
+            return WINNING[mask(xBits)] || WINNING[mask(oBits)];
+        }
+        if (moveCount > 0) {
+            int last = moves[moveCount - 1] & 0xFF;
+            return completesLine(last, get(xBits, last) ? xBits : oBits);
+        }
+        // board set without history: fall back to checking every stone
+        for (int cell = 0; cell < getCellCount(); cell++) {
+            if ((get(xBits, cell) && completesLine(cell, xBits)) || (get(oBits, cell) && completesLine(cell, oBits))) {
                 return true;
             }
         }
         return false;
     }
 
+    // shared with the CPU engines so they use the exact same win table
+    public static boolean isWinningMask(int mask) {
+        return WINNING[mask];
+    }
+
     public boolean isDraw() {
-        return !board.contains(EMPTY_CELL) && !isWin();
+        return occupied() == getCellCount() && !isWin();
     }
 
     public void undoMove() {
-        if (moveHistory.isEmpty()) {
+        if (moveCount == 0) {
             return;
         }
-        int lastPosition = moveHistory.remove(moveHistory.size() - 1);
-        board.set(lastPosition, EMPTY_CELL);
+        int lastPosition = moves[--moveCount] & 0xFF;
+        clear(xBits, lastPosition);
+        clear(oBits, lastPosition);
         winner = null;
         switchPlayer();
         status = "IN_PROGRESS";
     }
 
+    // ===== bitset helpers =====
+
+    private static int bytesFor(int size) {
+        return (size * size + 7) / 8;
+    }
+
+    private static boolean get(byte[] bits, int cell) {
+        return (bits[cell >>> 3] & (1 << (cell & 7))) != 0;
+    }
+
+    private static void set(byte[] bits, int cell) {
+        bits[cell >>> 3] |= (byte) (1 << (cell & 7));
+    }
+
+    private static void clear(byte[] bits, int cell) {
+        bits[cell >>> 3] &= (byte) ~(1 << (cell & 7));
+    }
+
+    // low 9 bits as an int mask (the whole board when it is 3x3)
+    private static int mask(byte[] bits) {
+        return ((bits[0] & 0xFF) | (bits[1] & 0xFF) << 8) & FULL_MASK;
+    }
+
+    private int occupied() {
+        int count = 0;
+        for (int i = 0; i < xBits.length; i++) {
+            count += Integer.bitCount((xBits[i] | oBits[i]) & 0xFF);
+        }
+        return count;
+    }
+
+    // detached copy of the current state, used by write-behind so the DB write never sees a half-applied move
+    public Game snapshot() {
+        Game copy = new Game();
+        copy.id = id;
+        copy.version = version;
+        copy.playerX = playerX;
+        copy.playerO = playerO;
+        copy.status = status;
+        copy.createdAt = createdAt;
+        copy.lastActivityAt = lastActivityAt;
+        copy.boardSize = boardSize;
+        copy.winLength = winLength;
+        copy.xBits = xBits.clone();
+        copy.oBits = oBits.clone();
+        copy.moves = moves.clone();
+        copy.moveCount = moveCount;
+        copy.loggedEvents = loggedEvents;
+        copy.stateVersion = stateVersion;
+        copy.vsCpu = vsCpu;
+        copy.cpuDifficulty = cpuDifficulty;
+        copy.currentPlayer = currentPlayer;
+        copy.winner = winner;
+        copy.xTimeLeftMs = xTimeLeftMs;
+        copy.oTimeLeftMs = oTimeLeftMs;
+        copy.moveLimitMs = moveLimitMs;
+        copy.turnStartedAt = turnStartedAt;
+        copy.timeForfeit = timeForfeit;
+        return copy;
+    }
+
     // ===== getters & setters =====
 
     public Long getId() {
         return id;
     }
 
+    // view for the JSON API and templates, built from the bitsets on demand
     public List<String> getBoard() {
-        return new ArrayList<>(board);
+        int cells = getCellCount();
+        List<String> board = new ArrayList<>(cells);
+        for (int i = 0; i < cells; i++) {
+            board.add(cellAt(i));
+        }
+        return board;
     }
 
     public String getCurrentPlayer() {
@@ -149,26 +453,136 @@ public class Game {
     }
 
     public List<Integer> getMoveHistory() {
-        return new ArrayList<>(moveHistory);
+        List<Integer> history = new ArrayList<>(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            history.add(moves[i] & 0xFF);
+        }
+        return history;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    // cell played as move number index (0-based)
+    public int getMoveAt(int index) {
+        return moves[index] & 0xFF;
+    }
+
+    public int getLoggedEvents() {
+        return loggedEvents;
+    }
+
+    public void setLoggedEvents(int loggedEvents) {
+        this.loggedEvents = loggedEvents;
+    }
+
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    public void bumpStateVersion() {
+        stateVersion++;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public int getCellCount() {
+        return boardSize * boardSize;
+    }
+
+    public boolean isClassic() {
+        return boardSize == CLASSIC_SIZE && winLength == CLASSIC_SIZE;
+    }
+
+    public boolean hasX(int cell) {
+        return get(xBits, cell);
+    }
+
+    public boolean hasO(int cell) {
+        return get(oBits, cell);
+    }
+
+    // ----- 3x3 masks for the table-driven CPU; only meaningful when isClassic() -----
+
+    public int getXMask() {
+        return mask(xBits);
+    }
+
+    public int getOMask() {
+        return mask(oBits);
+    }
+
+    // free cells as a mask, handy for CPU move selection
+    public int getEmptyMask() {
+        return ~(getXMask() | getOMask()) & FULL_MASK;
+    }
+
+    // lowest free cell on any board size, -1 when full
+    public int firstEmptyCell() {
+        for (int cell = 0; cell < getCellCount(); cell++) {
+            if (!get(xBits, cell) && !get(oBits, cell)) {
+                return cell;
+            }
+        }
+        return -1;
     }
 
     public String getCharAt(int position) {
-        if (position < 0 || position >= BOARD_SIZE) {
+        if (position < 0 || position >= getCellCount()) {
             throw new IllegalArgumentException("Invalid board position: " + position);
         }
-        return board.get(position);
+        return cellAt(position);
+    }
+
+    private String cellAt(int position) {
+        if (get(xBits, position)) return PLAYER_X;
+        if (get(oBits, position)) return PLAYER_O;
+        return EMPTY_CELL;
     }
 
     public void setId(Long id) {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public void setBoard(List<String> board) {
-        this.board = board != null ? new ArrayList<>(board) : new ArrayList<>();
+        xBits = new byte[bytesFor(boardSize)];
+        oBits = new byte[bytesFor(boardSize)];
+        if (board == null) {
+            return;
+        }
+        for (int i = 0; i < board.size() && i < getCellCount(); i++) {
+            if (PLAYER_X.equals(board.get(i))) {
+                set(xBits, i);
+            } else if (PLAYER_O.equals(board.get(i))) {
+                set(oBits, i);
+            }
+        }
     }
 
     public void setMoveHistory(List<Integer> moveHistory) {
-        this.moveHistory = moveHistory != null ? new ArrayList<>(moveHistory) : new ArrayList<>();
+        moves = new byte[getCellCount()];
+        moveCount = 0;
+        if (moveHistory == null) {
+            return;
+        }
+        for (int position : moveHistory) {
+            moves[moveCount++] = (byte) position;
+        }
     }
 
     public void setCurrentPlayer(String currentPlayer) {
@@ -207,6 +621,14 @@ public class Game {
         return createdAt;
     }
 
+    public LocalDateTime getLastActivityAt() {
+        return lastActivityAt != null ? lastActivityAt : createdAt;
+    }
+
+    public void setLastActivityAt(LocalDateTime lastActivityAt) {
+        this.lastActivityAt = lastActivityAt;
+    }
+
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
@@ -218,4 +640,12 @@ public class Game {
     public void setVsCpu(boolean vsCpu) {
         this.vsCpu = vsCpu;
     }
+
+    public CpuDifficulty getCpuDifficulty() {
+        return cpuDifficulty;
+    }
+
+    public void setCpuDifficulty(CpuDifficulty cpuDifficulty) {
+        this.cpuDifficulty = cpuDifficulty;
+    }
 }
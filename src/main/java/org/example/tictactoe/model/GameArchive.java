@@ -0,0 +1,99 @@
+package org.example.tictactoe.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import org.example.tictactoe.AppUser;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+// A closed game moved out of the hot game table by GameReaper: who played, how it ended (a loss on
+// time included, with the clocks as they stopped) and the move sequence, which is all it takes to
+// rebuild the board. No bitsets, no version columns and no move-log rows (take-backs are gone,
+// only the final line of play is kept).
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_game_archive_player_x", columnList = "playerX_id, createdAt DESC, id DESC"),
+        @Index(name = "idx_game_archive_player_o", columnList = "playerO_id, createdAt DESC, id DESC")
+})
+public class GameArchive {
+
+    // the game's own id, so old links keep working
+    @Id
+    private Long id;
+
+    @ManyToOne
+    private AppUser playerX;
+    @ManyToOne
+    private AppUser playerO;
+
+    private String status;   // FINISHED, EXPIRED or ABANDONED
+    private String winner;
+    private LocalDateTime createdAt;
+    private LocalDateTime archivedAt;
+
+    private int boardSize;
+    private int winLength;
+    private boolean vsCpu;
+    @Enumerated(EnumType.STRING)
+    private CpuDifficulty cpuDifficulty;
+
+    // one byte per move in play order, as in Game
+    @Column(length = Game.MAX_SIZE * Game.MAX_SIZE)
+    private byte[] moves;
+    private int moveCount;
+
+    // PvP clocks as the game ended, as on Game; defaults for rows archived before they were kept
+    @ColumnDefault("0")
+    private long xTimeLeftMs;
+    @ColumnDefault("0")
+    private long oTimeLeftMs;
+    @ColumnDefault("0")
+    private long moveLimitMs;
+    @ColumnDefault("false")
+    private boolean timeForfeit;
+
+    protected GameArchive() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    // read-only Game for the usual views, rebuilt by replaying the moves (none for rows archived
+    // before moves were kept on the row, whatever their moveCount says)
+    public Game toGame() {
+        Game game = new Game();
+        game.setId(id);
+        game.setCreatedAt(createdAt);
+        game.initialize(boardSize, winLength);
+        game.setStatus("IN_PROGRESS");
+        int played = moves == null ? 0 : Math.min(moveCount, moves.length);
+        for (int i = 0; i < played; i++) {
+            game.makeMove(moves[i] & 0xFF);
+        }
+        game.setPlayerX(playerX);
+        game.setPlayerO(playerO);
+        game.setVsCpu(vsCpu);
+        game.setCpuDifficulty(cpuDifficulty);
+        game.setWinner(winner);
+        game.setStatus(status);
+        game.setFinalClock(xTimeLeftMs, oTimeLeftMs, moveLimitMs, timeForfeit);
+        game.setLoggedEvents(game.getMoveCount());
+        return game;
+    }
+}
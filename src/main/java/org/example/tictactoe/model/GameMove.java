@@ -1,23 +1,79 @@
 package org.example.tictactoe.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 
 import java.time.LocalDateTime;
 
+// One entry of a game's append-only move log: a move, or a take-back (position UNDO).
+// Rows are only ever inserted; a game's state is its last snapshot (the Game row) plus the
+// entries numbered after Game.loggedEvents.
 @Entity
+@Table(indexes = @Index(name = "uk_game_move_number", columnList = "game_id, moveNumber", unique = true))
 public class GameMove {
+    public static final int UNDO = -1;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_move_seq")
+    @SequenceGenerator(name = "game_move_seq", sequenceName = "game_move_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
-    private GameSession game;
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Game game;
 
-    private int position;
-    private String player;
+    private int position;    // cell index, or UNDO
+    private String player;   // "x" / "o": who moved, or whose move was taken back
     private LocalDateTime playedAt;
-    private int moveNumber;
+    private int moveNumber;  // 1-based position in this game's log
+
+    protected GameMove() {
+    }
+
+    public GameMove(Game game, int moveNumber, int position, String player) {
+        this.game = game;
+        this.moveNumber = moveNumber;
+        this.position = position;
+        this.player = player;
+        this.playedAt = LocalDateTime.now();
+    }
+
+    // apply this entry on top of a game rebuilt from earlier entries
+    public void applyTo(Game target) {
+        if (isUndo()) {
+            target.undoMove();
+        } else {
+            target.makeMove(position);
+        }
+    }
+
+    public boolean isUndo() {
+        return position == UNDO;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public String getPlayer() {
+        return player;
+    }
+
+    public LocalDateTime getPlayedAt() {
+        return playedAt;
+    }
+
+    public int getMoveNumber() {
+        return moveNumber;
+    }
 }
@@ -0,0 +1,79 @@
+package org.example.tictactoe.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.example.tictactoe.AppUser;
+import org.example.tictactoe.puzzle.PuzzleDifficulty;
+
+import java.time.LocalDateTime;
+
+// How far one user got through one difficulty's puzzles. Puzzles are served in index order,
+// so a cursor is all it takes; PuzzleService keeps these in memory and writes them in batches.
+@Entity
+@Table(indexes = @Index(name = "uk_puzzle_progress_user", columnList = "user_id, difficulty", unique = true))
+public class PuzzleProgress {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "puzzle_progress_seq")
+    @SequenceGenerator(name = "puzzle_progress_seq", sequenceName = "puzzle_progress_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private AppUser user;
+
+    @Enumerated(EnumType.STRING)
+    private PuzzleDifficulty difficulty;
+
+    private int cursor;     // position of the current puzzle within the difficulty
+    private int solved;
+    private int attempts;
+    private LocalDateTime updatedAt;
+
+    protected PuzzleProgress() {
+    }
+
+    public PuzzleProgress(AppUser user, PuzzleDifficulty difficulty) {
+        this.user = user;
+        this.difficulty = difficulty;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public PuzzleDifficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public int getCursor() {
+        return cursor;
+    }
+
+    public int getSolved() {
+        return solved;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void update(int cursor, int solved, int attempts, LocalDateTime updatedAt) {
+        this.cursor = cursor;
+        this.solved = solved;
+        this.attempts = attempts;
+        this.updatedAt = updatedAt;
+    }
+}
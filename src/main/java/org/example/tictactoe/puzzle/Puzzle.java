@@ -0,0 +1,34 @@
+package org.example.tictactoe.puzzle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One puzzle from the index: a 3x3 position as bit masks (bit i = cell i), the side to move,
+// and every move that solves it. WIN: force a win in n moves, any first move that keeps the
+// fastest win is right. SAVE: the position is a draw with exactly one move that doesn't lose.
+public record Puzzle(int id, PuzzleDifficulty difficulty, Kind kind, int n, int xMask, int oMask, int solutions) {
+
+    public enum Kind {
+        WIN,
+        SAVE
+    }
+
+    // x opens, so x is to move whenever both have played the same number of moves
+    public String toMove() {
+        return Integer.bitCount(xMask) == Integer.bitCount(oMask) ? "x" : "o";
+    }
+
+    public boolean isSolution(int cell) {
+        return cell >= 0 && cell < 9 && (solutions & (1 << cell)) != 0;
+    }
+
+    // same shape as Game.getBoard()
+    public List<String> board() {
+        List<String> board = new ArrayList<>(9);
+        for (int cell = 0; cell < 9; cell++) {
+            int bit = 1 << cell;
+            board.add((xMask & bit) != 0 ? "x" : (oMask & bit) != 0 ? "o" : "-");
+        }
+        return board;
+    }
+}
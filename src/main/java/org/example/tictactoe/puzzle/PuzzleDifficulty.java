@@ -0,0 +1,9 @@
+package org.example.tictactoe.puzzle;
+
+// EASY: win in 1. MEDIUM: win in 2, or the only move that stops an immediate loss.
+// HARD: win in 3, or the only non-losing move when some wrong moves only lose later.
+public enum PuzzleDifficulty {
+    EASY,
+    MEDIUM,
+    HARD
+}
@@ -0,0 +1,269 @@
+package org.example.tictactoe.puzzle;
+
+import org.example.tictactoe.cpu.PerfectPlayTable;
+import org.example.tictactoe.model.Game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Every 3x3 puzzle, found once by walking all legal positions against the solved game tree
+// (PerfectPlayTable), with mirror/rotation duplicates dropped.
+//
+// Binary layout, big-endian ints:
+//   MAGIC, EASY count, MEDIUM count, HARD count, then the records, section by section
+// One record per puzzle, 4 bytes: x mask (bits 0-8), o mask (9-17), solution cells (18-26),
+// kind (27: 0 WIN, 1 SAVE), n (28-29). A puzzle's id is its record number, so lookups are a
+// single read from the buffer (heap, or a read-only memory map of the file). Immutable.
+public final class PuzzleIndex {
+
+    static final int MAGIC = 0x5454_5A01; // "TTZ" + format version
+    private static final int HEADER_INTS = 1 + PuzzleDifficulty.values().length;
+    private static final int CELLS_MASK = Game.FULL_MASK;
+
+    // the 8 symmetries of the board as cell permutations: SYMMETRIES[s][cell] = image of cell
+    private static final int[][] SYMMETRIES = new int[8][9];
+
+    static {
+        for (int cell = 0; cell < 9; cell++) {
+            int r = cell / 3;
+            int c = cell % 3;
+            int[][] images = {
+                    {r, c}, {c, 2 - r}, {2 - r, 2 - c}, {2 - c, r},  // rotations
+                    {r, 2 - c}, {2 - r, c}, {c, r}, {2 - c, 2 - r}   // reflections
+            };
+            for (int s = 0; s < 8; s++) {
+                SYMMETRIES[s][cell] = images[s][0] * 3 + images[s][1];
+            }
+        }
+    }
+
+    private final IntBuffer records;
+    private final int[] first = new int[PuzzleDifficulty.values().length];
+    private final int[] counts = new int[PuzzleDifficulty.values().length];
+
+    private PuzzleIndex(ByteBuffer buffer) {
+        IntBuffer ints = buffer.asIntBuffer();
+        if (ints.limit() < HEADER_INTS || ints.get(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a puzzle index");
+        }
+        int start = 0;
+        for (PuzzleDifficulty difficulty : PuzzleDifficulty.values()) {
+            counts[difficulty.ordinal()] = ints.get(1 + difficulty.ordinal());
+            first[difficulty.ordinal()] = start;
+            start += counts[difficulty.ordinal()];
+        }
+        if (ints.limit() != HEADER_INTS + start) {
+            throw new IllegalArgumentException("Truncated puzzle index");
+        }
+        this.records = ints.position(HEADER_INTS).slice();
+    }
+
+    // ===== loading =====
+
+    // solve and encode everything in memory
+    public static PuzzleIndex build() {
+        return new PuzzleIndex(encode());
+    }
+
+    // map file read-only; (re)built and written first if it is missing or not a valid index
+    public static PuzzleIndex open(Path file) {
+        try {
+            if (Files.exists(file)) {
+                try {
+                    return new PuzzleIndex(map(file));
+                } catch (IllegalArgumentException e) {
+                    // stale format or a torn write: build it again below
+                }
+            }
+            ByteBuffer encoded = encode();
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (encoded.hasRemaining()) {
+                    out.write(encoded);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new PuzzleIndex(map(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open puzzle index " + file, e);
+        }
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            return in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+        }
+    }
+
+    // ===== lookups =====
+
+    public int size() {
+        return records.limit();
+    }
+
+    public int count(PuzzleDifficulty difficulty) {
+        return counts[difficulty.ordinal()];
+    }
+
+    // id of the i-th puzzle of a difficulty, wrapping around
+    public int idOf(PuzzleDifficulty difficulty, int i) {
+        int count = count(difficulty);
+        return count == 0 ? -1 : first[difficulty.ordinal()] + Math.floorMod(i, count);
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < size();
+    }
+
+    public boolean isSolution(int id, int cell) {
+        return cell >= 0 && cell < 9 && (records.get(id) >>> 18 & (1 << cell)) != 0;
+    }
+
+    public Puzzle get(int id) {
+        int record = records.get(id);
+        return new Puzzle(id, difficultyOf(id),
+                (record >>> 27 & 1) == 0 ? Puzzle.Kind.WIN : Puzzle.Kind.SAVE,
+                record >>> 28 & 3,
+                record & CELLS_MASK, record >>> 9 & CELLS_MASK, record >>> 18 & CELLS_MASK);
+    }
+
+    private PuzzleDifficulty difficultyOf(int id) {
+        PuzzleDifficulty[] all = PuzzleDifficulty.values();
+        for (int d = all.length - 1; d > 0; d--) {
+            if (id >= first[d]) {
+                return all[d];
+            }
+        }
+        return all[0];
+    }
+
+    // ===== building =====
+
+    private static ByteBuffer encode() {
+        List<List<Integer>> sections = new ArrayList<>();
+        for (PuzzleDifficulty ignored : PuzzleDifficulty.values()) {
+            sections.add(new ArrayList<>());
+        }
+        for (int x = 0; x <= CELLS_MASK; x++) {
+            for (int o = 0; o <= CELLS_MASK; o++) {
+                if (isCandidate(x, o) && canonical(x, o) == (x | o << 9)) {
+                    classify(x, o, sections);
+                }
+            }
+        }
+
+        int total = 0;
+        for (List<Integer> section : sections) {
+            // a fixed shuffle, so consecutive puzzles don't all look alike
+            section.sort(Comparator.comparingInt(PuzzleIndex::scramble));
+            total += section.size();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((HEADER_INTS + total) * Integer.BYTES);
+        buffer.putInt(MAGIC);
+        for (List<Integer> section : sections) {
+            buffer.putInt(section.size());
+        }
+        for (List<Integer> section : sections) {
+            for (int record : section) {
+                buffer.putInt(record);
+            }
+        }
+        return buffer.flip();
+    }
+
+    // legal, undecided, and at least two moves to choose from
+    private static boolean isCandidate(int x, int o) {
+        int xs = Integer.bitCount(x);
+        int os = Integer.bitCount(o);
+        return (x & o) == 0
+                && (xs == os || xs == os + 1)
+                && !Game.isWinningMask(x) && !Game.isWinningMask(o)
+                && Integer.bitCount(~(x | o) & CELLS_MASK) >= 2;
+    }
+
+    private static void classify(int x, int o, List<List<Integer>> sections) {
+        boolean xToMove = Integer.bitCount(x) == Integer.bitCount(o);
+        int mine = xToMove ? x : o;
+        int theirs = xToMove ? o : x;
+        if (PerfectPlayTable.score(mine, theirs) == Byte.MIN_VALUE) {
+            return; // not reachable in a real game
+        }
+
+        // the solved value of each move, from the mover's side: 9 wins at once, 11 - 2n wins in n,
+        // 0 draws, -8 lets the opponent win at once
+        int empty = ~(mine | theirs) & CELLS_MASK;
+        int[] values = new int[9];
+        int best = Integer.MIN_VALUE;
+        for (int moves = empty; moves != 0; moves &= moves - 1) {
+            int cell = Integer.numberOfTrailingZeros(moves);
+            int value = -PerfectPlayTable.score(theirs, mine | (1 << cell));
+            values[cell] = value > 0 ? value - 1 : value < 0 ? value + 1 : 0;
+            best = Math.max(best, values[cell]);
+        }
+
+        int solutions = 0;
+        boolean trap = false;
+        for (int moves = empty; moves != 0; moves &= moves - 1) {
+            int cell = Integer.numberOfTrailingZeros(moves);
+            if (best > 0 ? values[cell] == best : values[cell] >= 0) {
+                solutions |= 1 << cell;
+            } else if (values[cell] != -8) {
+                trap = true; // a wrong move whose loss is still a while away
+            }
+        }
+        if (solutions == empty) {
+            return; // nothing to get wrong
+        }
+
+        if (best > 0) {
+            int n = (11 - best) / 2;
+            if (n <= 3) {
+                PuzzleDifficulty difficulty = n == 1 ? PuzzleDifficulty.EASY : n == 2 ? PuzzleDifficulty.MEDIUM : PuzzleDifficulty.HARD;
+                sections.get(difficulty.ordinal()).add(record(x, o, solutions, Puzzle.Kind.WIN, n));
+            }
+        } else if (best == 0 && Integer.bitCount(solutions) == 1) {
+            PuzzleDifficulty difficulty = trap ? PuzzleDifficulty.HARD : PuzzleDifficulty.MEDIUM;
+            sections.get(difficulty.ordinal()).add(record(x, o, solutions, Puzzle.Kind.SAVE, 0));
+        }
+    }
+
+    private static int record(int x, int o, int solutions, Puzzle.Kind kind, int n) {
+        return x | o << 9 | solutions << 18 | kind.ordinal() << 27 | n << 28;
+    }
+
+    // smallest (x | o << 9) over the 8 symmetric images of the position
+    static int canonical(int x, int o) {
+        int min = Integer.MAX_VALUE;
+        for (int[] symmetry : SYMMETRIES) {
+            min = Math.min(min, permute(x, symmetry) | permute(o, symmetry) << 9);
+        }
+        return min;
+    }
+
+    private static int permute(int mask, int[] symmetry) {
+        int image = 0;
+        for (int cell = 0; cell < 9; cell++) {
+            if ((mask & (1 << cell)) != 0) {
+                image |= 1 << symmetry[cell];
+            }
+        }
+        return image;
+    }
+
+    private static int scramble(int record) {
+        int h = record * 0x9E37_79B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,13 +1,45 @@
 package org.example.tictactoe.repository;
 
 import org.example.tictactoe.AppUser;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface AppUserRepository extends JpaRepository<AppUser, Long> {
+    // hit on every authentication and game creation; unknown names aren't cached so a fresh
+    // registration is seen straight away
+    @Cacheable(cacheNames = "users", key = "#p0", unless = "#result == null")
     Optional<AppUser> findByUsername(String username);
-    List<AppUser> findTop10ByOrderByWinsDesc();
+
+    @Override
+    @CacheEvict(cacheNames = "users", key = "#p0.username")
+    <S extends AppUser> S save(S user);
+
+    // leaderboard rebuilds and pages beyond the cached top-N, served by the wins index
+    List<AppUser> findByOrderByWinsDescUsernameAsc(Pageable pageable);
+
+    // stat counters are bumped in SQL so concurrent results never lose an increment;
+    // keyed by username (unique index) so the cached copy can be evicted too
+    @Modifying
+    @CacheEvict(cacheNames = "users", key = "#p0")
+    @Query("update AppUser u set u.wins = u.wins + 1, u.gamesPlayed = u.gamesPlayed + 1 where u.username = :username")
+    int addWin(@Param("username") String username);
+
+    @Modifying
+    @CacheEvict(cacheNames = "users", key = "#p0")
+    @Query("update AppUser u set u.losses = u.losses + 1, u.gamesPlayed = u.gamesPlayed + 1 where u.username = :username")
+    int addLoss(@Param("username") String username);
+
+    @Modifying
+    @CacheEvict(cacheNames = "users", key = "#p0")
+    @Query("update AppUser u set u.ties = u.ties + 1, u.gamesPlayed = u.gamesPlayed + 1 where u.username = :username")
+    int addTie(@Param("username") String username);
 
 }
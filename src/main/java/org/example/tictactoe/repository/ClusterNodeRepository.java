@@ -0,0 +1,23 @@
+package org.example.tictactoe.repository;
+
+import org.example.tictactoe.model.ClusterNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ClusterNodeRepository extends JpaRepository<ClusterNode, String> {
+    List<ClusterNode> findByLastSeenAfter(LocalDateTime since);
+
+    // rows of nodes that died without saying goodbye
+    @Modifying
+    @Transactional
+    @Query("delete from ClusterNode n where n.lastSeen < :before")
+    int deleteByLastSeenBefore(@Param("before") LocalDateTime before);
+}
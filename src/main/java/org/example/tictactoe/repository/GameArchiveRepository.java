@@ -0,0 +1,111 @@
+package org.example.tictactoe.repository;
+
+import jakarta.persistence.QueryHint;
+import org.example.tictactoe.model.GameArchive;
+import org.example.tictactoe.service.GameExportRow;
+import org.example.tictactoe.service.GameSummary;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface GameArchiveRepository extends JpaRepository<GameArchive, Long> {
+
+    // ===== "My Games" continues here: same projection, keyset and one-query-per-seat as GameRepository =====
+
+    @Query("""
+            select new org.example.tictactoe.service.GameSummary(a.id, a.status, x.username, o.username, a.createdAt)
+            from GameArchive a join a.playerX x left join a.playerO o
+            where a.playerX.id = :userId
+            order by a.createdAt desc, a.id desc""")
+    List<GameSummary> findSummariesAsX(Long userId, Limit limit);
+
+    @Query("""
+            select new org.example.tictactoe.service.GameSummary(a.id, a.status, x.username, o.username, a.createdAt)
+            from GameArchive a join a.playerX x left join a.playerO o
+            where a.playerX.id = :userId
+              and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id))
+            order by a.createdAt desc, a.id desc""")
+    List<GameSummary> findSummariesAsXBefore(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query("""
+            select new org.example.tictactoe.service.GameSummary(a.id, a.status, x.username, o.username, a.createdAt)
+            from GameArchive a left join a.playerX x join a.playerO o
+            where a.playerO.id = :userId
+            order by a.createdAt desc, a.id desc""")
+    List<GameSummary> findSummariesAsO(Long userId, Limit limit);
+
+    @Query("""
+            select new org.example.tictactoe.service.GameSummary(a.id, a.status, x.username, o.username, a.createdAt)
+            from GameArchive a left join a.playerX x join a.playerO o
+            where a.playerO.id = :userId
+              and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id))
+            order by a.createdAt desc, a.id desc""")
+    List<GameSummary> findSummariesAsOBefore(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    // ===== export: same cursor queries as GameRepository's =====
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = GameRepository.EXPORT_FETCH_SIZE))
+    @Query("""
+            select new org.example.tictactoe.service.GameExportRow(a.id, a.status, a.winner, x.username, o.username,
+                   a.createdAt, a.boardSize, a.winLength, a.vsCpu, a.cpuDifficulty, a.timeForfeit,
+                   a.moves, a.moveCount, true)
+            from GameArchive a join a.playerX x left join a.playerO o
+            where a.playerX.id = :userId
+            order by a.createdAt desc, a.id desc""")
+    Stream<GameExportRow> streamAsX(Long userId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = GameRepository.EXPORT_FETCH_SIZE))
+    @Query("""
+            select new org.example.tictactoe.service.GameExportRow(a.id, a.status, a.winner, x.username, o.username,
+                   a.createdAt, a.boardSize, a.winLength, a.vsCpu, a.cpuDifficulty, a.timeForfeit,
+                   a.moves, a.moveCount, true)
+            from GameArchive a join a.playerX x left join a.playerO o
+            where a.playerX.id = :userId
+              and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id))
+            order by a.createdAt desc, a.id desc""")
+    Stream<GameExportRow> streamAsXBefore(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = GameRepository.EXPORT_FETCH_SIZE))
+    @Query("""
+            select new org.example.tictactoe.service.GameExportRow(a.id, a.status, a.winner, x.username, o.username,
+                   a.createdAt, a.boardSize, a.winLength, a.vsCpu, a.cpuDifficulty, a.timeForfeit,
+                   a.moves, a.moveCount, true)
+            from GameArchive a left join a.playerX x join a.playerO o
+            where a.playerO.id = :userId
+            order by a.createdAt desc, a.id desc""")
+    Stream<GameExportRow> streamAsO(Long userId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = GameRepository.EXPORT_FETCH_SIZE))
+    @Query("""
+            select new org.example.tictactoe.service.GameExportRow(a.id, a.status, a.winner, x.username, o.username,
+                   a.createdAt, a.boardSize, a.winLength, a.vsCpu, a.cpuDifficulty, a.timeForfeit,
+                   a.moves, a.moveCount, true)
+            from GameArchive a left join a.playerX x join a.playerO o
+            where a.playerO.id = :userId
+              and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id))
+            order by a.createdAt desc, a.id desc""")
+    Stream<GameExportRow> streamAsOBefore(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    // one INSERT ... SELECT per batch, nothing loaded into memory
+    @Modifying
+    @Query("""
+            insert into GameArchive (id, playerX, playerO, status, winner, createdAt, archivedAt,
+                                     boardSize, winLength, vsCpu, cpuDifficulty, moves, moveCount,
+                                     xTimeLeftMs, oTimeLeftMs, moveLimitMs, timeForfeit)
+            select g.id, g.playerX, g.playerO, g.status, g.winner, g.createdAt, :archivedAt,
+                   g.boardSize, g.winLength, g.vsCpu, g.cpuDifficulty, g.moves, g.moveCount,
+                   g.xTimeLeftMs, g.oTimeLeftMs, g.moveLimitMs, g.timeForfeit
+            from Game g
+            where g.id in :ids""")
+    int copyFromGames(Collection<Long> ids, LocalDateTime archivedAt);
+}
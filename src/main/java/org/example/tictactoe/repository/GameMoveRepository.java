@@ -0,0 +1,23 @@
+package org.example.tictactoe.repository;
+
+import org.example.tictactoe.model.GameMove;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface GameMoveRepository extends JpaRepository<GameMove, Long> {
+    // log entries after a snapshot, in play order
+    List<GameMove> findByGame_IdAndMoveNumberGreaterThanOrderByMoveNumber(Long gameId, int moveNumber);
+
+    List<GameMove> findByGame_IdAndMoveNumberLessThanEqualOrderByMoveNumber(Long gameId, int moveNumber);
+
+    // log of archived games, which keep only their final move sequence
+    @Modifying
+    @Query("delete from GameMove m where m.game.id in :gameIds")
+    int deleteByGameIds(Collection<Long> gameIds);
+}
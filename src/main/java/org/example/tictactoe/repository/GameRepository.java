@@ -1,14 +1,147 @@
 package org.example.tictactoe.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.tictactoe.model.Game;
+import org.example.tictactoe.service.GameExportRow;
+import org.example.tictactoe.service.GameSummary;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface GameRepository extends JpaRepository<Game,Long> {
-    List<Game> findByPlayerX_UsernameOrPlayerO_Username(String x, String o);
     List<Game> findByStatus(String status);
 
+    // ===== list pages: projections only, keyset paging on (createdAt, id), newest first =====
+    // One query per seat, so each walks its (player, createdAt, id) index in order and stops at
+    // the limit; an "x or o" filter would have to collect and sort all of the user's games.
+
+    @Query("""
+            select new org.example.tictactoe.service.GameSummary(g.id, g.status, x.username, o.username, g.createdAt)
+            from Game g join g.playerX x left join g.playerO o
+            where g.playerX.id = :userId
+            order by g.createdAt desc, g.id desc""")
+    List<GameSummary> findSummariesAsX(Long userId, Limit limit);
+
+    @Query("""
+            select new org.example.tictactoe.service.GameSummary(g.id, g.status, x.username, o.username, g.createdAt)
+            from Game g join g.playerX x left join g.playerO o
+            where g.playerX.id = :userId
+              and (g.createdAt < :createdAt or (g.createdAt = :createdAt and g.id < :id))
+            order by g.createdAt desc, g.id desc""")
+    List<GameSummary> findSummariesAsXBefore(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query("""
+            select new org.example.tictactoe.service.GameSummary(g.id, g.status, x.username, o.username, g.createdAt)
+            from Game g left join g.playerX x join g.playerO o
+            where g.playerO.id = :userId
+            order by g.createdAt desc, g.id desc""")
+    List<GameSummary> findSummariesAsO(Long userId, Limit limit);
+
+    @Query("""
+            select new org.example.tictactoe.service.GameSummary(g.id, g.status, x.username, o.username, g.createdAt)
+            from Game g left join g.playerX x join g.playerO o
+            where g.playerO.id = :userId
+              and (g.createdAt < :createdAt or (g.createdAt = :createdAt and g.id < :id))
+            order by g.createdAt desc, g.id desc""")
+    List<GameSummary> findSummariesAsOBefore(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    // WAITING games someone else is hosting
+    @Query("""
+            select new org.example.tictactoe.service.GameSummary(g.id, g.status, x.username, null, g.createdAt)
+            from Game g left join g.playerX x
+            where g.status = 'WAITING' and (x.id is null or x.id <> :userId)
+            order by g.createdAt desc, g.id desc""")
+    List<GameSummary> findOpenSummaries(Long userId, Limit limit);
+
+    @Query("""
+            select new org.example.tictactoe.service.GameSummary(g.id, g.status, x.username, null, g.createdAt)
+            from Game g left join g.playerX x
+            where g.status = 'WAITING' and (x.id is null or x.id <> :userId)
+              and (g.createdAt < :createdAt or (g.createdAt = :createdAt and g.id < :id))
+            order by g.createdAt desc, g.id desc""")
+    List<GameSummary> findOpenSummariesBefore(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    // ===== export: a forward-only cursor over one batch, read fetch-size rows at a time =====
+
+    // rows per JDBC round trip while a cursor is open (PostgreSQL only honours it inside a transaction)
+    String EXPORT_FETCH_SIZE = "100";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("""
+            select new org.example.tictactoe.service.GameExportRow(g.id, g.status, g.winner, x.username, o.username,
+                   g.createdAt, g.boardSize, g.winLength, g.vsCpu, g.cpuDifficulty, g.timeForfeit,
+                   g.moves, g.moveCount, false)
+            from Game g join g.playerX x left join g.playerO o
+            where g.playerX.id = :userId
+            order by g.createdAt desc, g.id desc""")
+    Stream<GameExportRow> streamAsX(Long userId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("""
+            select new org.example.tictactoe.service.GameExportRow(g.id, g.status, g.winner, x.username, o.username,
+                   g.createdAt, g.boardSize, g.winLength, g.vsCpu, g.cpuDifficulty, g.timeForfeit,
+                   g.moves, g.moveCount, false)
+            from Game g join g.playerX x left join g.playerO o
+            where g.playerX.id = :userId
+              and (g.createdAt < :createdAt or (g.createdAt = :createdAt and g.id < :id))
+            order by g.createdAt desc, g.id desc""")
+    Stream<GameExportRow> streamAsXBefore(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("""
+            select new org.example.tictactoe.service.GameExportRow(g.id, g.status, g.winner, x.username, o.username,
+                   g.createdAt, g.boardSize, g.winLength, g.vsCpu, g.cpuDifficulty, g.timeForfeit,
+                   g.moves, g.moveCount, false)
+            from Game g left join g.playerX x join g.playerO o
+            where g.playerO.id = :userId
+            order by g.createdAt desc, g.id desc""")
+    Stream<GameExportRow> streamAsO(Long userId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("""
+            select new org.example.tictactoe.service.GameExportRow(g.id, g.status, g.winner, x.username, o.username,
+                   g.createdAt, g.boardSize, g.winLength, g.vsCpu, g.cpuDifficulty, g.timeForfeit,
+                   g.moves, g.moveCount, false)
+            from Game g left join g.playerX x join g.playerO o
+            where g.playerO.id = :userId
+              and (g.createdAt < :createdAt or (g.createdAt = :createdAt and g.id < :id))
+            order by g.createdAt desc, g.id desc""")
+    Stream<GameExportRow> streamAsOBefore(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    // running CPU games on boards where the CPU searches in the background (3x3 replies inline)
+    @Query("select g.id from Game g where g.status = 'IN_PROGRESS' and g.vsCpu = true and g.boardSize > 3")
+    List<Long> findLargeBoardCpuIds();
+
+    // PvP games whose clock is running, to re-arm their move timeouts after a restart or handoff
+    @Query("select g.id from Game g where g.status = 'IN_PROGRESS' and g.turnStartedAt > 0")
+    List<Long> findClockedIds();
+
+    // ===== reaper / archive: ids only, oldest first =====
+
+    @Query("select g.id from Game g where g.status = :status and g.createdAt < :before order by g.createdAt")
+    List<Long> findIdsCreatedBefore(String status, LocalDateTime before, Limit limit);
+
+    // IN_PROGRESS games nobody has touched since before (rows from before lastActivityAt go by createdAt)
+    @Query("""
+            select g.id from Game g
+            where g.status = 'IN_PROGRESS'
+              and (g.lastActivityAt < :before or (g.lastActivityAt is null and g.createdAt < :before))""")
+    List<Long> findIdleIds(LocalDateTime before, Limit limit);
+
+    @Query("select g.id from Game g where g.status in :statuses and g.createdAt < :before order by g.createdAt")
+    List<Long> findIdsCreatedBefore(Collection<String> statuses, LocalDateTime before, Limit limit);
+
+    @Modifying
+    @Query("delete from Game g where g.id in :ids")
+    int deleteByIds(Collection<Long> ids);
 }
@@ -0,0 +1,13 @@
+package org.example.tictactoe.repository;
+
+import org.example.tictactoe.model.PuzzleProgress;
+import org.example.tictactoe.puzzle.PuzzleDifficulty;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PuzzleProgressRepository extends JpaRepository<PuzzleProgress, Long> {
+    Optional<PuzzleProgress> findByUser_IdAndDifficulty(Long userId, PuzzleDifficulty difficulty);
+}
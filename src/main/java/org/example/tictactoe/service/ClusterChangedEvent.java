@@ -0,0 +1,7 @@
+package org.example.tictactoe.service;
+
+import org.example.tictactoe.cluster.HashRing;
+
+// published by ClusterService when the set of live nodes changes; owners of moved games hand them off
+public record ClusterChangedEvent(HashRing ring) {
+}
@@ -0,0 +1,127 @@
+package org.example.tictactoe.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.tictactoe.cluster.HashRing;
+import org.example.tictactoe.model.ClusterNode;
+import org.example.tictactoe.repository.ClusterNodeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Game ownership across app nodes. Every node heartbeats into the cluster_node table; the live
+// ones form a consistent-hash ring, and each game belongs to the node its id hashes to. Only the
+// owner keeps a game in its engine, so the in-memory single-writer model holds cluster-wide;
+// ClusterForwardingFilter sends game requests that land elsewhere to the owner. When the ring
+// changes, nodes drop the games they lost (the move log makes that safe, see GameEngine.handOff)
+// and pick up new ones from the DB on first access.
+// Disabled (the default), every game is local and none of this runs.
+@Service
+public class ClusterService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterService.class);
+
+    // matchmaking queues live on one node: whichever owns this key
+    private static final long MATCHMAKING_KEY = 0L;
+
+    private final ClusterNodeRepository nodes;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+    private final String self;
+    private final long nodeTimeoutMs;
+    private final int pointsPerNode;
+
+    private volatile HashRing ring;
+
+    public ClusterService(ClusterNodeRepository nodes, ApplicationEventPublisher events,
+                          @Value("${tictactoe.cluster.enabled:false}") boolean enabled,
+                          @Value("${tictactoe.cluster.self:http://localhost:8080}") String self,
+                          @Value("${tictactoe.cluster.node-timeout-ms:6000}") long nodeTimeoutMs,
+                          @Value("${tictactoe.cluster.points-per-node:128}") int pointsPerNode) {
+        this.nodes = nodes;
+        this.events = events;
+        this.enabled = enabled;
+        this.self = self;
+        this.nodeTimeoutMs = nodeTimeoutMs;
+        this.pointsPerNode = pointsPerNode;
+        this.ring = new HashRing(List.of(self), pointsPerNode);
+    }
+
+    // join before anything (engine recovery included) asks who owns what
+    @PostConstruct
+    public void join() {
+        if (enabled) {
+            heartbeat();
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (enabled) {
+            nodes.deleteById(self);
+        }
+    }
+
+    // ===== ownership =====
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String self() {
+        return self;
+    }
+
+    public HashRing ring() {
+        return ring;
+    }
+
+    public String ownerOf(long gameId) {
+        return enabled ? ring.ownerOf(gameId) : self;
+    }
+
+    public boolean owns(long gameId) {
+        return self.equals(ownerOf(gameId));
+    }
+
+    public String matchmakingNode() {
+        return ownerOf(MATCHMAKING_KEY);
+    }
+
+    // the node that runs cluster-wide chores (archiving); the matchmaking node, so one of them
+    public boolean isLeader() {
+        return owns(MATCHMAKING_KEY);
+    }
+
+    // ===== membership =====
+
+    @Scheduled(fixedDelayString = "${tictactoe.cluster.heartbeat-ms:2000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        nodes.save(new ClusterNode(self, now));
+        nodes.deleteByLastSeenBefore(now.minusNanos(10 * nodeTimeoutMs * 1_000_000));
+        refresh(now);
+    }
+
+    private void refresh(LocalDateTime now) {
+        List<String> live = nodes.findByLastSeenAfter(now.minusNanos(nodeTimeoutMs * 1_000_000)).stream()
+                .map(ClusterNode::getUrl)
+                .toList();
+        HashRing next = new HashRing(live.contains(self) ? live : List.of(self), pointsPerNode);
+        if (next.nodes().equals(ring.nodes())) {
+            return;
+        }
+        log.info("Cluster changed: {} -> {}", ring.nodes(), next.nodes());
+        ring = next;
+        events.publishEvent(new ClusterChangedEvent(next));
+    }
+}
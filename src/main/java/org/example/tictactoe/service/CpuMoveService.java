@@ -0,0 +1,138 @@
+package org.example.tictactoe.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.example.tictactoe.cpu.AlphaBetaSearch;
+import org.example.tictactoe.model.Game;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+// Runs alpha-beta searches for large-board CPU games on a small dedicated pool, so servlet
+// threads never wait on CPU thinking. Each worker owns its search (and transposition table).
+// The workers stay platform threads even in virtual-thread mode: searching is pure CPU, and a
+// thread-local table per virtual thread would be rebuilt for every move. What does change is
+// who lands the move: with virtual threads on, that JDBC write is handed to a virtual thread
+// so a worker is free for the next search as soon as it has an answer.
+// A reply is never just dropped: a failed search or a failed landing plays the first free cell
+// instead, and a position already being searched isn't searched twice, so callers may ask again
+// whenever they find a CPU turn nobody answered (after a restart or a hand-off).
+@Service
+public class CpuMoveService {
+
+    private static final Logger log = LoggerFactory.getLogger(CpuMoveService.class);
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<AlphaBetaSearch> searches;
+    private final long budgetNanos;
+    private final int maxDepth;
+    private final Timer thinkTime;
+    private final Counter overloaded;
+    private final Executor writer;
+    // game id -> move count of the position being searched for it
+    private final Map<Long, Integer> thinking = new ConcurrentHashMap<>();
+
+    public CpuMoveService(MeterRegistry registry,
+                          @Value("${tictactoe.cpu.threads:2}") int threads,
+                          @Value("${tictactoe.cpu.queue-capacity:100}") int queueCapacity,
+                          @Value("${tictactoe.cpu.time-budget-ms:500}") long budgetMs,
+                          @Value("${tictactoe.cpu.max-depth:12}") int maxDepth,
+                          @Value("${tictactoe.cpu.table-entries:262144}") int tableEntries,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread t = new Thread(task, "cpu-search-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.searches = ThreadLocal.withInitial(() -> new AlphaBetaSearch(tableEntries));
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        this.maxDepth = maxDepth;
+        this.thinkTime = Timer.builder("tictactoe.cpu.think")
+                .description("Time the large-board CPU spends choosing a move")
+                .register(registry);
+        this.overloaded = Counter.builder("tictactoe.cpu.overloaded")
+                .description("CPU moves played without searching because the search queue was full")
+                .register(registry);
+        registry.gauge("tictactoe.cpu.queue", executor.getQueue(), q -> q.size());
+        this.writer = virtualThreads ? virtualThreadExecutor() : Runnable::run;
+    }
+
+    private static Executor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("cpu-move-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    // search position (a detached snapshot) in the background and hand the chosen cell to apply;
+    // does nothing if that same position is already being searched
+    public void think(Game position, IntConsumer apply) {
+        Integer moves = position.getMoveCount();
+        if (moves.equals(thinking.put(position.getId(), moves))) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                int cell;
+                try {
+                    long start = System.nanoTime();
+                    cell = searches.get().bestMove(position, budgetNanos, maxDepth);
+                    thinkTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                } catch (RuntimeException e) {
+                    log.warn("CPU search for game {} failed, playing the first free cell", position.getId(), e);
+                    cell = position.firstEmptyCell();
+                }
+                int chosen = cell;
+                writer.execute(() -> land(position, apply, chosen));
+            });
+        } catch (RejectedExecutionException e) {
+            // saturated: answer instantly rather than queue without bound
+            overloaded.increment();
+            try {
+                apply.accept(position.firstEmptyCell());
+            } finally {
+                done(position);
+            }
+        }
+    }
+
+    private void land(Game position, IntConsumer apply, int cell) {
+        try {
+            apply.accept(cell);
+        } catch (RuntimeException e) {
+            log.warn("CPU move for game {} failed, playing the first free cell", position.getId(), e);
+            try {
+                apply.accept(position.firstEmptyCell());
+            } catch (RuntimeException again) {
+                log.warn("CPU move for game {} failed again, left for the next look at the game", position.getId(), again);
+            }
+        } finally {
+            done(position);
+        }
+    }
+
+    private void done(Game position) {
+        thinking.remove(position.getId(), position.getMoveCount());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.tictactoe.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.tictactoe.clock.TimingWheel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// At most one pending move timeout per clocked game, all on one hashed timing wheel: arming,
+// re-arming after every move and disarming are O(1), with no task or DB poll per game.
+// A timeout only says "look again": the callback re-checks the game's own clock under the game
+// lock, so a stale or duplicate arm (two moves answered out of order) costs a no-op at worst.
+// Callbacks run on the clock's own few threads, so a burst of timeouts never competes with
+// request work for a shared executor.
+@Service
+public class GameClockService {
+
+    private final ExecutorService timeouts;
+    private final TimingWheel wheel;
+    private final Map<Long, TimingWheel.Timeout> armed = new ConcurrentHashMap<>();
+
+    public GameClockService(MeterRegistry registry,
+                            @Value("${tictactoe.clock.tick-ms:100}") long tickMs,
+                            @Value("${tictactoe.clock.wheel-size:512}") int wheelSize,
+                            @Value("${tictactoe.clock.threads:2}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        this.timeouts = Executors.newFixedThreadPool(threads, task -> {
+            Thread t = new Thread(task, "game-clock-timeout-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.wheel = new TimingWheel("game-clock", tickMs, wheelSize, timeouts);
+        Gauge.builder("tictactoe.clock.pending", wheel, TimingWheel::pending)
+                .description("Move timeouts waiting on the timing wheel")
+                .register(registry);
+    }
+
+    // run onTimeout at deadlineMs (epoch ms), replacing whatever was armed for this game
+    public void arm(Long gameId, long deadlineMs, Runnable onTimeout) {
+        TimingWheel.Timeout timeout = wheel.schedule(onTimeout, deadlineMs - System.currentTimeMillis());
+        TimingWheel.Timeout previous = armed.put(gameId, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    public void disarm(Long gameId) {
+        TimingWheel.Timeout previous = armed.remove(gameId);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    public Set<Long> armedGames() {
+        return armed.keySet();
+    }
+
+    public int pending() {
+        return wheel.pending();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.close();
+        timeouts.shutdown();
+    }
+}
@@ -0,0 +1,469 @@
+package org.example.tictactoe.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.tictactoe.model.Game;
+import org.example.tictactoe.model.GameArchive;
+import org.example.tictactoe.repository.GameArchiveRepository;
+import org.example.tictactoe.repository.GameRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// In-memory owner of every WAITING / IN_PROGRESS game.
+// Moves are applied here under a per-game lock (single writer per game) and appended to the
+// move log before the caller gets an answer. The Game row itself is a snapshot, refreshed in
+// batches by a scheduled write-behind job; status changes (join, finish) are written through
+// immediately, and FINISHED games move to the bounded "games" cache for read-only lookups.
+// A write-through that fails is kept in memory and retried, with its onFinish, by the flusher.
+// In a cluster the engine only keeps the games this node owns (ClusterService); a game owned
+// elsewhere is still served correctly, from the DB, but never held on to. Games GameReaper has
+// archived are still readable, rebuilt from the archive row, but no longer writable.
+@Service
+public class GameEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(GameEngine.class);
+
+    private final GameRepository gameRepository;
+    private final GameArchiveRepository archiveRepository;
+    private final MoveLog moveLog;
+    private final TransactionTemplate transactions;
+    private final ClusterService cluster;
+    private final Cache finishedGames;
+    private final int flushBatchSize;
+
+    private final Map<Long, ActiveGame> active = new ConcurrentHashMap<>();
+
+    public GameEngine(GameRepository gameRepository,
+                      GameArchiveRepository archiveRepository,
+                      MoveLog moveLog,
+                      TransactionTemplate transactions,
+                      ClusterService cluster,
+                      CacheManager cacheManager,
+                      MeterRegistry registry,
+                      @Value("${tictactoe.engine.flush-batch-size:100}") int flushBatchSize) {
+        this.gameRepository = gameRepository;
+        this.archiveRepository = archiveRepository;
+        this.moveLog = moveLog;
+        this.transactions = transactions;
+        this.cluster = cluster;
+        this.finishedGames = Objects.requireNonNull(cacheManager.getCache("games"), "games cache");
+        this.flushBatchSize = flushBatchSize;
+
+        // sampled at scrape time, so the per-status walk costs the move path nothing
+        Gauge.builder("tictactoe.engine.active", active, Map::size)
+                .description("Games held in memory by the engine")
+                .register(registry);
+        for (String status : List.of("WAITING", "IN_PROGRESS")) {
+            Gauge.builder("tictactoe.games", this, engine -> engine.countByStatus(status))
+                    .description("Active games by status")
+                    .tag("status", status)
+                    .register(registry);
+        }
+    }
+
+    // one live game + its writer lock; changes (guarded by lock) vs flushed (guarded by writing)
+    // tell the flusher whether it is dirty. version is the row's @Version as of our last write,
+    // also guarded by writing, so writes never need to touch the live Game.
+    // writing is held while this game's row is being written, by a flush batch or a write-through,
+    // so an older batched snapshot can never land on top of a FINISHED row. Moves only take lock;
+    // a write-through takes writing after lock, and the flusher only tryLock()s lock while
+    // holding writing, so the two orders can't deadlock.
+    private static final class ActiveGame {
+        final Game game;
+        final ReentrantLock lock = new ReentrantLock();
+        final ReentrantLock writing = new ReentrantLock();
+        // a status write-through (and its onFinish) that failed, retried by the flusher; guarded by lock
+        Consumer<Game> unwritten;
+        volatile long changes;
+        volatile long flushed;
+        volatile long version;
+
+        ActiveGame(Game game) {
+            this.game = game;
+            this.version = game.getVersion();
+        }
+
+        // caller holds lock
+        Game copy() {
+            Game copy = game.snapshot();
+            copy.setVersion(version);
+            return copy;
+        }
+    }
+
+    // ===== recovery =====
+
+    // reload whatever was active when the last instance stopped, including moves logged
+    // after its last snapshot
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        int loaded = 0;
+        int replayed = 0;
+        for (String status : List.of("WAITING", "IN_PROGRESS")) {
+            for (Game game : gameRepository.findByStatus(status)) {
+                if (!cluster.owns(game.getId())) {
+                    continue;
+                }
+                replayed += moveLog.replayTail(game);
+                active.putIfAbsent(game.getId(), new ActiveGame(game));
+                loaded++;
+            }
+        }
+        log.info("Recovered {} active games into memory, {} logged moves replayed", loaded, replayed);
+    }
+
+    // ===== reads / writes =====
+
+    // active games come from memory (a copy taken under the game's lock, so never half-way through
+    // a move), finished ones from the cache; callers must not modify either
+    public Game get(Long id) {
+        ActiveGame entry = active.get(id);
+        if (entry != null) {
+            return read(entry);
+        }
+        Game cached = finishedGames.get(id, Game.class);
+        if (cached != null) {
+            return cached;
+        }
+        Game game = load(id);
+        if (isActive(game)) {
+            return cluster.owns(id) ? read(track(game)) : game;
+        }
+        finishedGames.put(id, game);
+        return game;
+    }
+
+    // start tracking a freshly saved game
+    public Game register(Game saved) {
+        return isActive(saved) && cluster.owns(saved.getId()) ? read(track(saved)) : saved;
+    }
+
+    private Game read(ActiveGame entry) {
+        entry.lock.lock();
+        try {
+            return entry.copy();
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    // whether this node has the game in memory
+    public boolean holds(Long id) {
+        return active.containsKey(id);
+    }
+
+    public Game update(Long id, Consumer<Game> action) {
+        return update(id, action, game -> { });
+    }
+
+    // Run a mutation as the single writer of this game. Its moves are appended to the log right
+    // away and the row is left for the next snapshot flush, unless the status changed: then the
+    // row is written through, and if the game just finished, onFinish (stats) commits with it.
+    // Returns a copy taken under the lock, safe to read after other writers move on.
+    public Game update(Long id, Consumer<Game> action, Consumer<Game> onFinish) {
+        while (true) {
+            ActiveGame entry = active.get(id);
+            boolean owned = true;
+            if (entry == null) {
+                finishedGames.evict(id); // writers always start from the row
+                Game game = loadForWrite(id);
+                owned = cluster.owns(id);
+                // not ours (a request that raced a ring change): apply it to a private copy;
+                // the log append still serialises it against the owner's writes
+                entry = owned ? track(game) : new ActiveGame(game);
+            }
+
+            entry.lock.lock();
+            try {
+                if (owned && active.get(id) != entry) {
+                    continue; // finished or handed off while we waited, start over from the DB copy
+                }
+
+                boolean wasActive = isActive(entry.game);
+                String statusBefore = entry.game.getStatus();
+                int movesBefore = entry.game.getMoveCount();
+                action.accept(entry.game);
+                entry.changes++;
+                if (entry.game.getMoveCount() != movesBefore
+                        || !Objects.equals(statusBefore, entry.game.getStatus())) {
+                    entry.game.bumpStateVersion();
+                    entry.game.setLastActivityAt(LocalDateTime.now());
+                }
+
+                try {
+                    moveLog.append(entry.game, movesBefore);
+                } catch (RuntimeException e) {
+                    // memory is ahead of the log now: forget it, the next access rebuilds from the DB
+                    active.remove(id, entry);
+                    throw e;
+                }
+
+                boolean finished = wasActive && !isActive(entry.game);
+                boolean statusChanged = !Objects.equals(statusBefore, entry.game.getStatus());
+                if (statusChanged) {
+                    Consumer<Game> write = finished ? onFinish : game -> { };
+                    try {
+                        writeThrough(entry, write);
+                    } catch (OptimisticLockingFailureException e) {
+                        throw e;
+                    } catch (RuntimeException e) {
+                        if (!owned) {
+                            throw e; // a private copy has nobody to retry it
+                        }
+                        // the move is logged and memory is right, only the row (and stats) lag:
+                        // keep the entry and let the flusher retry the write with onFinish
+                        entry.unwritten = write;
+                        log.warn("Write-through of game {} failed, retrying on the next flush", id, e);
+                    }
+                }
+                if (entry.unwritten == null && !isActive(entry.game)) {
+                    active.remove(id, entry);
+                    if (statusChanged) {
+                        finishedGames.put(id, entry.copy()); // exactly what was just written
+                    }
+                }
+                return entry.copy();
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    public int activeCount() {
+        return active.size();
+    }
+
+    // unlocked read of each status: good enough for a gauge
+    public int countByStatus(String status) {
+        int count = 0;
+        for (ActiveGame entry : active.values()) {
+            if (status.equals(entry.game.getStatus())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // ===== cluster =====
+
+    // The ring moved: drop the games that now hash to another node. Their moves are all in the
+    // log already; the snapshot is written too so the new owner has less to replay. A writer
+    // racing this finds its entry gone and starts over from the DB.
+    @EventListener
+    public void handOff(ClusterChangedEvent event) {
+        int released = 0;
+        for (ActiveGame entry : active.values()) {
+            Long id = entry.game.getId();
+            if (cluster.owns(id)) {
+                continue;
+            }
+            entry.lock.lock();
+            try {
+                if (!active.remove(id, entry)) {
+                    continue;
+                }
+                released++;
+                if (entry.changes != entry.flushed) {
+                    entry.writing.lock();
+                    try {
+                        if (entry.unwritten != null) {
+                            writeThrough(entry, entry.unwritten); // still owes its status write
+                        } else {
+                            writeOne(entry.copy(), entry, entry.changes);
+                        }
+                    } catch (RuntimeException e) {
+                        log.warn("Snapshot of handed-off game {} failed, the owner replays the log", id, e);
+                    } finally {
+                        entry.writing.unlock();
+                    }
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+        if (released > 0) {
+            log.info("Handed off {} games after cluster change to {}", released, event.ring().nodes());
+        }
+    }
+
+    // ===== write-behind =====
+
+    // Only the games in the batch being written are excluded from write-throughs, and only
+    // while their batch is in flight; moves never wait for the flush.
+    @Scheduled(fixedDelayString = "${tictactoe.engine.flush-interval-ms:500}")
+    public void flush() {
+        List<Game> batch = new ArrayList<>();
+        List<ActiveGame> owners = new ArrayList<>();
+        List<Long> marks = new ArrayList<>();
+
+        try {
+            for (ActiveGame entry : active.values()) {
+                if (entry.changes == entry.flushed || !entry.writing.tryLock()) {
+                    continue; // clean, or its row is being written right now: picked up next tick
+                }
+                if (!entry.lock.tryLock()) {
+                    entry.writing.unlock();
+                    continue; // mid-move: picked up next tick
+                }
+                try {
+                    if (entry.unwritten != null) {
+                        retryWriteThrough(entry);
+                        entry.writing.unlock();
+                        continue;
+                    }
+                    batch.add(entry.copy());
+                    owners.add(entry);
+                    marks.add(entry.changes);
+                } finally {
+                    entry.lock.unlock();
+                }
+
+                if (batch.size() >= flushBatchSize) {
+                    write(batch, owners, marks);
+                }
+            }
+            write(batch, owners, marks);
+        } finally {
+            owners.forEach(entry -> entry.writing.unlock()); // only left over if a write threw
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // caller holds writing of every owner; released here, whatever happens
+    private void write(List<Game> batch, List<ActiveGame> owners, List<Long> marks) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<Game> saved = transactions.execute(status -> gameRepository.saveAll(batch));
+            for (int i = 0; i < owners.size(); i++) {
+                written(owners.get(i), saved.get(i), marks.get(i));
+            }
+        } catch (OptimisticLockingFailureException e) {
+            // some row moved on without us: retry one by one so only the stale games are dropped
+            for (int i = 0; i < owners.size(); i++) {
+                writeOne(batch.get(i), owners.get(i), marks.get(i));
+            }
+        } catch (RuntimeException e) {
+            // leave them dirty, next tick retries
+            log.warn("Write-behind flush of {} games failed", batch.size(), e);
+        } finally {
+            owners.forEach(entry -> entry.writing.unlock());
+            batch.clear();
+            owners.clear();
+            marks.clear();
+        }
+    }
+
+    private void writeOne(Game game, ActiveGame entry, long mark) {
+        try {
+            written(entry, transactions.execute(status -> gameRepository.save(game)), mark);
+        } catch (OptimisticLockingFailureException e) {
+            conflict(entry, e);
+        }
+    }
+
+    // caller holds entry.lock; the row and onFinish commit together
+    private void writeThrough(ActiveGame entry, Consumer<Game> onFinish) {
+        entry.writing.lock();
+        try {
+            Game finished = entry.copy();
+            Game saved = transactions.execute(status -> {
+                Game row = gameRepository.save(finished);
+                onFinish.accept(finished);
+                return row;
+            });
+            written(entry, saved, entry.changes);
+        } catch (OptimisticLockingFailureException e) {
+            conflict(entry, e);
+            throw e;
+        } finally {
+            entry.writing.unlock();
+        }
+    }
+
+    // caller holds entry.lock and entry.writing
+    private void retryWriteThrough(ActiveGame entry) {
+        Long id = entry.game.getId();
+        try {
+            writeThrough(entry, entry.unwritten);
+        } catch (OptimisticLockingFailureException e) {
+            return; // dropped by conflict()
+        } catch (RuntimeException e) {
+            log.warn("Write-through of game {} failed again", id, e);
+            return;
+        }
+        entry.unwritten = null;
+        if (!isActive(entry.game)) {
+            active.remove(id, entry);
+            finishedGames.put(id, entry.copy());
+        }
+    }
+
+    // caller holds entry.writing
+    private void written(ActiveGame entry, Game saved, long mark) {
+        entry.version = saved.getVersion();
+        entry.flushed = mark;
+    }
+
+    // the database copy wins: forget ours so the next access reloads it
+    private void conflict(ActiveGame entry, OptimisticLockingFailureException e) {
+        active.remove(entry.game.getId(), entry);
+        finishedGames.evict(entry.game.getId());
+        log.warn("Game {} was changed elsewhere, dropping in-memory copy", entry.game.getId(), e);
+    }
+
+    // finished rows are final; an active row may be behind the move log
+    private Game load(Long id) {
+        return gameRepository.findById(id)
+                .map(this::catchUp)
+                .or(() -> archiveRepository.findById(id).map(GameArchive::toGame))
+                .orElseThrow(() -> new GameRuleException("Game not found"));
+    }
+
+    // an archived game has no row (and no log) to write to any more
+    private Game loadForWrite(Long id) {
+        return gameRepository.findById(id)
+                .map(this::catchUp)
+                .orElseThrow(() -> new GameRuleException(archiveRepository.existsById(id)
+                        ? "This game has been archived." : "Game not found"));
+    }
+
+    private Game catchUp(Game game) {
+        if (isActive(game)) {
+            moveLog.replayTail(game);
+        }
+        return game;
+    }
+
+    private ActiveGame track(Game game) {
+        return active.computeIfAbsent(game.getId(), id -> new ActiveGame(game));
+    }
+
+    private boolean isActive(Game game) {
+        return "WAITING".equals(game.getStatus()) || "IN_PROGRESS".equals(game.getStatus());
+    }
+}
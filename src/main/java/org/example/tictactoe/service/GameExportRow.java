@@ -0,0 +1,14 @@
+package org.example.tictactoe.service;
+
+import org.example.tictactoe.model.CpuDifficulty;
+
+import java.time.LocalDateTime;
+
+// one game as exported by GameExportService, built by a JPQL constructor expression so the
+// export never loads Game entities, bitsets or AppUser rows; moves is the packed cell sequence
+// (one unsigned byte per move, as on Game), only the first moveCount bytes count
+public record GameExportRow(Long id, String status, String winner, String playerX, String playerO,
+                            LocalDateTime createdAt, int boardSize, int winLength, boolean vsCpu,
+                            CpuDifficulty cpuDifficulty, boolean timeForfeit, byte[] moves, int moveCount,
+                            boolean archived) {
+}
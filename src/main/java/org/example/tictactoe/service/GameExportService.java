@@ -0,0 +1,295 @@
+package org.example.tictactoe.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.tictactoe.AppUser;
+import org.example.tictactoe.repository.AppUserRepository;
+import org.example.tictactoe.repository.GameArchiveRepository;
+import org.example.tictactoe.repository.GameRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// A user's whole game history written as NDJSON or CSV: live games played as X, then as O, then
+// the same from the archive, each newest first from one index-ordered query per table and seat.
+// Rows come batch-size at a time through a forward-only cursor (Stream + fetch size) in a short
+// read-only transaction and are encoded into one reused buffer; the connection goes back to the
+// pool before the buffer is written out, so a slow client never holds a DB connection and memory
+// stays at one batch however many games there are. Batches continue by keyset on (createdAt, id),
+// like the "My Games" pages.
+//
+// Live rows are the engine's last snapshot (a running game may be a flush behind), and a game
+// archived mid-export can show up twice, once from each table.
+@Service
+public class GameExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType + ";charset=UTF-8";
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private static final String CSV_HEADER =
+            "id,status,winner,playerX,playerO,createdAt,boardSize,winLength,vsCpu,cpuDifficulty,timeForfeit,archived,moves\n";
+
+    private final List<Source> sources;
+    private final AppUserRepository userRepository;
+    private final TransactionTemplate reads;
+    private final JsonFactory json;
+    private final int batchSize;
+    private final Counter exported;
+
+    public GameExportService(GameRepository gameRepository,
+                             GameArchiveRepository archiveRepository,
+                             AppUserRepository userRepository,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             MeterRegistry registry,
+                             @Value("${tictactoe.export.batch-size:500}") int batchSize) {
+        this.sources = List.of(
+                (userId, after, limit) -> after == null
+                        ? gameRepository.streamAsX(userId, limit)
+                        : gameRepository.streamAsXBefore(userId, after.createdAt, after.id, limit),
+                (userId, after, limit) -> after == null
+                        ? gameRepository.streamAsO(userId, limit)
+                        : gameRepository.streamAsOBefore(userId, after.createdAt, after.id, limit),
+                (userId, after, limit) -> after == null
+                        ? archiveRepository.streamAsX(userId, limit)
+                        : archiveRepository.streamAsXBefore(userId, after.createdAt, after.id, limit),
+                (userId, after, limit) -> after == null
+                        ? archiveRepository.streamAsO(userId, limit)
+                        : archiveRepository.streamAsOBefore(userId, after.createdAt, after.id, limit));
+        this.userRepository = userRepository;
+        this.reads = new TransactionTemplate(transactionManager);
+        this.reads.setReadOnly(true);
+        this.json = objectMapper.getFactory();
+        this.batchSize = batchSize;
+        this.exported = Counter.builder("tictactoe.games.exported")
+                .description("Games written by /game/export")
+                .register(registry);
+    }
+
+    public void export(String username, Format format, OutputStream out) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+        RowWriter writer = format == Format.CSV ? new CsvWriter(buffer) : new NdjsonWriter(json, buffer);
+        writer.start();
+        writer.flush();
+        buffer.writeTo(out);
+        buffer.reset();
+
+        Long userId = userRepository.findByUsername(username).map(AppUser::getId).orElse(null);
+        if (userId != null) {
+            for (Source source : sources) {
+                Batch batch = null;
+                do {
+                    Batch after = batch;
+                    batch = reads.execute(status -> {
+                        try (Stream<GameExportRow> rows = source.open(userId, after, Limit.of(batchSize))) {
+                            return write(rows.iterator(), writer);
+                        }
+                    });
+                    writer.flush();
+                    buffer.writeTo(out);
+                    buffer.reset();
+                    out.flush();
+                    exported.increment(batch.count);
+                } while (batch.count == batchSize);
+            }
+        }
+        writer.close();
+        buffer.writeTo(out);
+        out.flush();
+    }
+
+    // one table and seat: its first batch, or the batch after the last row written
+    private interface Source {
+        Stream<GameExportRow> open(Long userId, Batch after, Limit limit);
+    }
+
+    private static Batch write(Iterator<GameExportRow> rows, RowWriter writer) {
+        Batch batch = new Batch();
+        try {
+            while (rows.hasNext()) {
+                GameExportRow row = rows.next();
+                writer.write(row);
+                batch.createdAt = row.createdAt();
+                batch.id = row.id();
+                batch.count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return batch;
+    }
+
+    // how far a batch got: its count, and the keyset of its last row
+    private static final class Batch {
+        int count;
+        LocalDateTime createdAt;
+        Long id;
+    }
+
+    // ===== encoders; both write into the batch buffer =====
+
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(GameExportRow row) throws IOException;
+
+        void flush() throws IOException;
+
+        void close() throws IOException;
+    }
+
+    // one JSON object per line
+    private static final class NdjsonWriter implements RowWriter {
+        private final JsonGenerator out;
+
+        NdjsonWriter(JsonFactory json, OutputStream buffer) throws IOException {
+            this.out = json.createGenerator(buffer);
+            this.out.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void write(GameExportRow row) throws IOException {
+            out.writeStartObject();
+            out.writeNumberField("id", row.id());
+            out.writeStringField("status", row.status());
+            out.writeStringField("winner", row.winner());
+            out.writeStringField("playerX", row.playerX());
+            out.writeStringField("playerO", row.playerO());
+            out.writeStringField("createdAt", row.createdAt() == null ? null : row.createdAt().toString());
+            out.writeNumberField("boardSize", row.boardSize());
+            out.writeNumberField("winLength", row.winLength());
+            out.writeBooleanField("vsCpu", row.vsCpu());
+            out.writeStringField("cpuDifficulty", row.cpuDifficulty() == null ? null : row.cpuDifficulty().name());
+            out.writeBooleanField("timeForfeit", row.timeForfeit());
+            out.writeBooleanField("archived", row.archived());
+            out.writeArrayFieldStart("moves");
+            for (int i = 0; i < row.moveCount(); i++) {
+                out.writeNumber(row.moves()[i] & 0xFF);
+            }
+            out.writeEndArray();
+            out.writeEndObject();
+            out.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    // RFC 4180: header line, fields quoted only when they need it, moves as space-separated cells
+    private static final class CsvWriter implements RowWriter {
+        private final Writer out;
+
+        CsvWriter(OutputStream buffer) {
+            this.out = new OutputStreamWriter(buffer, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void start() throws IOException {
+            out.write(CSV_HEADER);
+        }
+
+        @Override
+        public void write(GameExportRow row) throws IOException {
+            out.write(String.valueOf(row.id()));
+            out.write(',');
+            field(row.status());
+            out.write(',');
+            field(row.winner());
+            out.write(',');
+            field(row.playerX());
+            out.write(',');
+            field(row.playerO());
+            out.write(',');
+            field(row.createdAt() == null ? null : row.createdAt().toString());
+            out.write(',');
+            out.write(String.valueOf(row.boardSize()));
+            out.write(',');
+            out.write(String.valueOf(row.winLength()));
+            out.write(',');
+            out.write(String.valueOf(row.vsCpu()));
+            out.write(',');
+            field(row.cpuDifficulty() == null ? null : row.cpuDifficulty().name());
+            out.write(',');
+            out.write(String.valueOf(row.timeForfeit()));
+            out.write(',');
+            out.write(String.valueOf(row.archived()));
+            out.write(',');
+            for (int i = 0; i < row.moveCount(); i++) {
+                if (i > 0) {
+                    out.write(' ');
+                }
+                out.write(String.valueOf(row.moves()[i] & 0xFF));
+            }
+            out.write('\n');
+        }
+
+        private void field(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
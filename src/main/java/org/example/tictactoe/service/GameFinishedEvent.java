@@ -0,0 +1,5 @@
+package org.example.tictactoe.service;
+
+// published inside the transaction that records a result; listeners usually wait for the commit
+public record GameFinishedEvent(Long gameId, Long playerXId, Long playerOId, String winner) {
+}
@@ -0,0 +1,40 @@
+package org.example.tictactoe.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// a page of game summaries, newest first. next is the opaque keyset cursor for the following
+// page ("createdAt~id" of the last row), or null on the last page.
+public record GamePage(List<GameSummary> games, String next) {
+
+    public static final GamePage EMPTY = new GamePage(List.of(), null);
+
+    private static final char SEPARATOR = '~';
+
+    static GamePage of(List<GameSummary> rows, int size) {
+        if (rows.size() <= size) {
+            return new GamePage(rows, null);
+        }
+        // one extra row was fetched only to learn whether there is a next page
+        List<GameSummary> games = rows.subList(0, size);
+        GameSummary last = games.get(size - 1);
+        return new GamePage(List.copyOf(games), last.getCreatedAt().toString() + SEPARATOR + last.getId());
+    }
+
+    // cursor position to continue after; a missing or unreadable cursor starts from the newest game
+    record Cursor(LocalDateTime createdAt, long id) {
+
+        static Cursor parse(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            int split = cursor.lastIndexOf(SEPARATOR);
+            try {
+                return new Cursor(LocalDateTime.parse(cursor.substring(0, split)),
+                        Long.parseLong(cursor.substring(split + 1)));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
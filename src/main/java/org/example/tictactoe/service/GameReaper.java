@@ -0,0 +1,165 @@
+package org.example.tictactoe.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.tictactoe.model.Game;
+import org.example.tictactoe.repository.GameArchiveRepository;
+import org.example.tictactoe.repository.GameMoveRepository;
+import org.example.tictactoe.repository.GameRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+// Keeps the hot game table small.
+// Expire: WAITING games nobody joined become EXPIRED, IN_PROGRESS games nobody touched become
+// ABANDONED. That is a status change like any other, so it goes through GameService: the owner
+// node's in-memory copy is the truth and is written through, and watchers get the new state.
+// Archive: closed games older than archive-after are copied into GameArchive and deleted from
+// Game, together with their move log, one batch per transaction. Only the leader node does this.
+@Service
+public class GameReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(GameReaper.class);
+
+    private static final List<String> CLOSED = List.of("FINISHED", "EXPIRED", "ABANDONED");
+
+    private final GameRepository gameRepository;
+    private final GameMoveRepository moveRepository;
+    private final GameArchiveRepository archiveRepository;
+    private final GameService gameService;
+    private final LegacyGameTables legacyTables;
+    private final ClusterService cluster;
+    private final TransactionTemplate transactions;
+    private final Duration waitingTimeout;
+    private final Duration abandonedTimeout;
+    private final Duration archiveAfter;
+    private final int batchSize;
+
+    private final Counter expired;
+    private final Counter abandoned;
+    private final Counter archived;
+
+    public GameReaper(GameRepository gameRepository,
+                      GameMoveRepository moveRepository,
+                      GameArchiveRepository archiveRepository,
+                      GameService gameService,
+                      LegacyGameTables legacyTables,
+                      ClusterService cluster,
+                      TransactionTemplate transactions,
+                      MeterRegistry registry,
+                      @Value("${tictactoe.reaper.waiting-timeout-ms:1800000}") long waitingTimeoutMs,
+                      @Value("${tictactoe.reaper.abandoned-timeout-ms:86400000}") long abandonedTimeoutMs,
+                      @Value("${tictactoe.archive.after-ms:604800000}") long archiveAfterMs,
+                      @Value("${tictactoe.archive.batch-size:500}") int batchSize) {
+        this.gameRepository = gameRepository;
+        this.moveRepository = moveRepository;
+        this.archiveRepository = archiveRepository;
+        this.gameService = gameService;
+        this.legacyTables = legacyTables;
+        this.cluster = cluster;
+        this.transactions = transactions;
+        this.waitingTimeout = Duration.ofMillis(waitingTimeoutMs);
+        this.abandonedTimeout = Duration.ofMillis(abandonedTimeoutMs);
+        this.archiveAfter = Duration.ofMillis(archiveAfterMs);
+        this.batchSize = batchSize;
+        this.expired = reaped(registry, "expired");
+        this.abandoned = reaped(registry, "abandoned");
+        this.archived = reaped(registry, "archived");
+    }
+
+    private static Counter reaped(MeterRegistry registry, String outcome) {
+        return Counter.builder("tictactoe.games.reaped")
+                .description("Games expired, abandoned or moved to the archive by the reaper")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${tictactoe.reaper.interval-ms:60000}")
+    public void reap() {
+        try {
+            expire(LocalDateTime.now());
+            if (cluster.isLeader()) {
+                archive(LocalDateTime.now());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Reaper run failed, retrying next tick", e);
+        }
+    }
+
+    // one batch of each kind per call; whatever is left waits for the next tick
+    public int expire(LocalDateTime now) {
+        LocalDateTime waitingBefore = now.minus(waitingTimeout);
+        LocalDateTime idleBefore = now.minus(abandonedTimeout);
+        int closed = 0;
+        for (Long id : gameRepository.findIdsCreatedBefore("WAITING", waitingBefore, Limit.of(batchSize))) {
+            if (close(id, "WAITING", "EXPIRED", game -> game.getCreatedAt().isBefore(waitingBefore))) {
+                expired.increment();
+                closed++;
+            }
+        }
+        for (Long id : gameRepository.findIdleIds(idleBefore, Limit.of(batchSize))) {
+            if (close(id, "IN_PROGRESS", "ABANDONED", game -> game.getLastActivityAt().isBefore(idleBefore))) {
+                abandoned.increment();
+                closed++;
+            }
+        }
+        if (closed > 0) {
+            log.info("Closed {} stale games", closed);
+        }
+        return closed;
+    }
+
+    // The row only says the game was stale at the last snapshot: check again under the game lock.
+    // Games owned by another node are left to that node's reaper.
+    private boolean close(Long id, String from, String to, Predicate<Game> stale) {
+        if (!cluster.owns(id)) {
+            return false;
+        }
+        try {
+            return to.equals(gameService.closeStale(id, from, to, stale).getStatus());
+        } catch (RuntimeException e) {
+            log.warn("Could not close game {}", id, e);
+            return false;
+        }
+    }
+
+    // batches until one comes back short; each batch is copy, delete log, delete rows in one
+    // transaction. Legacy board rows (see LegacyGameTables) are folded in first: their foreign keys
+    // would fail the delete, and the same oldest batch would then fail on every tick.
+    public int archive(LocalDateTime now) {
+        LocalDateTime before = now.minus(archiveAfter);
+        int total = 0;
+        while (true) {
+            int moved = Objects.requireNonNull(transactions.execute(status -> {
+                List<Long> ids = gameRepository.findIdsCreatedBefore(CLOSED, before, Limit.of(batchSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                legacyTables.backfill(ids);
+                archiveRepository.copyFromGames(ids, now);
+                moveRepository.deleteByGameIds(ids);
+                gameRepository.deleteByIds(ids);
+                return ids.size();
+            }));
+            archived.increment(moved);
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Archived {} games created before {}", total, before);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.tictactoe.service;
+
+// A request the rules refuse: unknown game, user or puzzle, not the caller's turn or game, a game
+// that is closed or archived. The caller can do something about it, so it answers as a client
+// error; any other exception is a server fault.
+public class GameRuleException extends RuntimeException {
+
+    public GameRuleException(String message) {
+        super(message);
+    }
+}
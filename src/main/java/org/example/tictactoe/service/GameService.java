@@ -1,40 +1,157 @@
 package org.example.tictactoe.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.example.tictactoe.AppUser;
+import org.example.tictactoe.cpu.PerfectPlayStrategy;
+import org.example.tictactoe.model.BoardVariant;
+import org.example.tictactoe.model.CpuDifficulty;
 import org.example.tictactoe.model.Game;
 import org.example.tictactoe.repository.AppUserRepository;
+import org.example.tictactoe.repository.GameArchiveRepository;
 import org.example.tictactoe.repository.GameRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 @Service
 @Transactional
 public class GameService {
 
+    private static final Logger log = LoggerFactory.getLogger(GameService.class);
+
     private final GameRepository gameRepository;
+    private final GameArchiveRepository archiveRepository;
     private final AppUserRepository userRepository;
-
-    public GameService(GameRepository gameRepository, AppUserRepository userRepository) {
+    private final GameEngine engine;
+    private final CpuMoveService cpuMoves;
+    private final MoveLog moveLog;
+    private final ApplicationEventPublisher events;
+    private final GameClockService clocks;
+    private final ClusterService cluster;
+    private final long clockBankMs;
+    private final long clockMoveLimitMs;
+
+    // registered once; recording a duration or a rejection allocates nothing per request
+    private final Timer humanMoveTime;
+    private final Timer cpuMoveTime;
+    private final Timer undoTime;
+    private final Timer joinTime;
+    private final Timer getTime;
+    private final Counter notYourTurn;
+    private final Counter illegalMove;
+    private final Counter timeForfeits;
+
+    public GameService(GameRepository gameRepository, GameArchiveRepository archiveRepository,
+                       AppUserRepository userRepository,
+                       GameEngine engine, CpuMoveService cpuMoves, MoveLog moveLog,
+                       ApplicationEventPublisher events, MeterRegistry registry,
+                       GameClockService clocks, ClusterService cluster,
+                       @Value("${tictactoe.clock.bank-ms:300000}") long clockBankMs,
+                       @Value("${tictactoe.clock.move-limit-ms:60000}") long clockMoveLimitMs) {
         this.gameRepository = gameRepository;
+        this.archiveRepository = archiveRepository;
         this.userRepository = userRepository;
+        this.engine = engine;
+        this.cpuMoves = cpuMoves;
+        this.moveLog = moveLog;
+        this.events = events;
+        this.clocks = clocks;
+        this.cluster = cluster;
+        this.clockBankMs = clockBankMs;
+        this.clockMoveLimitMs = clockMoveLimitMs;
+        this.humanMoveTime = moveTimer(registry, "human");
+        this.cpuMoveTime = moveTimer(registry, "cpu");
+        this.undoTime = Timer.builder("tictactoe.game.undo")
+                .description("Time to take back a move, including the log append")
+                .register(registry);
+        this.joinTime = Timer.builder("tictactoe.game.join")
+                .description("Time to join a WAITING game, including the write-through")
+                .register(registry);
+        this.getTime = Timer.builder("tictactoe.game.get")
+                .description("Time to fetch a game from memory, the cache or the DB")
+                .register(registry);
+        this.notYourTurn = rejectedMoves(registry, "not_allowed");
+        this.illegalMove = rejectedMoves(registry, "illegal");
+        this.timeForfeits = Counter.builder("tictactoe.game.time_forfeit")
+                .description("PvP games lost on time")
+                .register(registry);
     }
 
+    // human: the whole makeMove call, including a 3x3 CPU reply played in the same update;
+    // cpu: choosing and applying the CPU reply alone (large-board search time is tictactoe.cpu.think)
+    private static Timer moveTimer(MeterRegistry registry, String player) {
+        return Timer.builder("tictactoe.game.move")
+                .description("Time to apply a move")
+                .tag("player", player)
+                .register(registry);
+    }
 
-    // 1️⃣ List all games a user is involved in
-    public List<Game> findGamesForUser(String username) {
-        return gameRepository.findByPlayerX_UsernameOrPlayerO_Username(username, username);
+    private static Counter rejectedMoves(MeterRegistry registry, String reason) {
+        return Counter.builder("tictactoe.game.move.rejected")
+                .description("Moves refused: not the caller's turn or game, or an occupied cell / finished game")
+                .tag("reason", reason)
+                .register(registry);
     }
 
+
+    // 1️⃣ List the games a user is involved in, one keyset page at a time. X and O seats are read
+    // separately (each down its own index), and archived games share the same (createdAt, id)
+    // keyset, so the page is the newest size + 1 of all of them merged.
+    @Transactional(readOnly = true)
+    public GamePage findGamesForUser(String username, String cursor, int size) {
+        Long userId = userIdOf(username);
+        if (userId == null) {
+            return GamePage.EMPTY;
+        }
+        GamePage.Cursor after = GamePage.Cursor.parse(cursor);
+        Limit limit = Limit.of(size + 1);
+        List<GameSummary> rows = new ArrayList<>(after == null
+                ? gameRepository.findSummariesAsX(userId, limit)
+                : gameRepository.findSummariesAsXBefore(userId, after.createdAt(), after.id(), limit));
+        rows.addAll(after == null
+                ? gameRepository.findSummariesAsO(userId, limit)
+                : gameRepository.findSummariesAsOBefore(userId, after.createdAt(), after.id(), limit));
+        rows.addAll(after == null
+                ? archiveRepository.findSummariesAsX(userId, limit)
+                : archiveRepository.findSummariesAsXBefore(userId, after.createdAt(), after.id(), limit));
+        rows.addAll(after == null
+                ? archiveRepository.findSummariesAsO(userId, limit)
+                : archiveRepository.findSummariesAsOBefore(userId, after.createdAt(), after.id(), limit));
+        rows.sort(NEWEST_FIRST);
+        return GamePage.of(rows.size() > size + 1 ? rows.subList(0, size + 1) : rows, size);
+    }
+
+    private static final Comparator<GameSummary> NEWEST_FIRST = Comparator
+            .comparing(GameSummary::getCreatedAt).thenComparing(GameSummary::getId).reversed();
+
     // 2️⃣ Create new game where current user is X
     public Game createNewGameForUser(String username, boolean vsCpu) {
+        return createNewGameForUser(username, vsCpu, null, BoardVariant.CLASSIC);
+    }
+
+    public Game createNewGameForUser(String username, boolean vsCpu, CpuDifficulty difficulty, BoardVariant variant) {
         AppUser user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+                .orElseThrow(() -> new GameRuleException("User not found: " + username));
 
+        BoardVariant board = variant != null ? variant : BoardVariant.CLASSIC;
         Game game = new Game();
-        game.initialize();
+        game.initialize(board.getSize(), board.getWinLength());
 
         game.setPlayerX(user);  // creator always plays as X
         game.setVsCpu(vsCpu);
@@ -44,96 +161,205 @@ public class GameService {
             // human vs CPU: game can start immediately
             game.setStatus("IN_PROGRESS");
             game.setPlayerO(null); // CPU is logical O
+            game.setCpuDifficulty(difficulty != null ? difficulty : CpuDifficulty.HARD);
         } else {
-            // PvP: wait for another human player to join as O
+            // PvP: wait for another human player to join as O; the clock starts when they do
             game.setStatus("WAITING");
             game.setPlayerO(null);
+            game.setClock(clockBankMs, clockMoveLimitMs);
         }
 
-        return gameRepository.save(game);
+        return engine.register(gameRepository.save(game));
     }
 
+    // PvP game for two players paired by matchmaking: both seats filled, starts immediately
+    public Game createMatchedGame(String xUsername, String oUsername, BoardVariant variant) {
+        AppUser x = userRepository.findByUsername(xUsername)
+                .orElseThrow(() -> new GameRuleException("User not found: " + xUsername));
+        AppUser o = userRepository.findByUsername(oUsername)
+                .orElseThrow(() -> new GameRuleException("User not found: " + oUsername));
 
-    // 3️⃣ Fetch a game safely
-    public Game getGame(Long id) {
-        return gameRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Game not found"));
+        BoardVariant board = variant != null ? variant : BoardVariant.CLASSIC;
+        Game game = new Game();
+        game.initialize(board.getSize(), board.getWinLength());
+        game.setPlayerX(x);
+        game.setPlayerO(o);
+        game.setVsCpu(false);
+        game.setCreatedAt(LocalDateTime.now());
+        game.setStatus("IN_PROGRESS");
+        game.setClock(clockBankMs, clockMoveLimitMs);
+        game.startTurn(System.currentTimeMillis());
+
+        return watchClock(engine.register(gameRepository.save(game)));
     }
 
-    // 4️⃣ Make a move (user-aware)
-    public Game makeMove(Long gameId, int position, String username) {
-        Game game = getGame(gameId);
 
-        // check permission
-        if (!isPlayerAllowedToMove(game, username)) {
-            throw new RuntimeException("You are not allowed to move in this game.");
+    // 3️⃣ Fetch a game safely (active games come straight from memory)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Game getGame(Long id) {
+        long start = System.nanoTime();
+        try {
+            Game game = engine.get(id);
+            if (engine.holds(id)) {
+                resumeCpu(game); // safety net: a CPU turn nobody is answering gets answered now
+            }
+            return game;
+        } finally {
+            getTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
+    }
 
-        boolean moved = game.makeMove(position); // human move
-        if (!moved) {
-            return game;
+    // Replay from the move log: the game after its first upTo moves / take-backs (all when null)
+    @Transactional(readOnly = true)
+    public Game replay(Long gameId, Integer upTo) {
+        Game game = engine.get(gameId);
+        return moveLog.replay(game, upTo != null ? upTo : game.getLoggedEvents());
+    }
+
+    // 4️⃣ Make a move (user-aware), applied in memory and logged; the game row catches up via write-behind
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Game makeMove(Long gameId, int position, String username) {
+        long start = System.nanoTime();
+        try {
+            Game game = engine.update(gameId, g -> {
+                // out of time already (the timeout may be a tick behind): that ends it, whoever asks
+                long now = System.currentTimeMillis();
+                if (now >= g.getTurnDeadline()) {
+                    forfeitOnTime(g);
+                    return;
+                }
+
+                // check permission
+                if (!isPlayerAllowedToMove(g, username)) {
+                    notYourTurn.increment();
+                    throw new GameRuleException("You are not allowed to move in this game.");
+                }
+
+                boolean moved = g.makeMove(position); // human move
+                if (!moved) {
+                    illegalMove.increment();
+                    return;
+                }
+                g.punchClock(now);
+
+                // 3x3 vs CPU: the reply is a table lookup, play it right away
+                if (isCpuTurn(g) && g.isClassic()) {
+                    long cpuStart = System.nanoTime();
+                    int cpuPos = PerfectPlayStrategy.forDifficulty(g.getCpuDifficulty())
+                            .chooseMove(g.getOMask(), g.getXMask());
+                    if (cpuPos >= 0) {
+                        g.makeMove(cpuPos);
+                    }
+                    cpuMoveTime.record(System.nanoTime() - cpuStart, TimeUnit.NANOSECONDS);
+                }
+
+                settleStatus(g);
+            }, this::recordResult);
+
+            resumeCpu(game);
+            return publish(game);
+        } finally {
+            humanMoveTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
+    }
 
-        // if vs CPU and now it's CPU's turn and game not finished
-        if (game.isVsCpu()
-                && "o".equalsIgnoreCase(game.getCurrentPlayer())
-                && game.getWinner() == null) {
+    // Bigger boards: search off the request thread, the reply reaches the players over SSE.
+    // Also how a CPU turn whose reply got lost (restart, hand-off) is picked up again; a position
+    // already being searched isn't searched twice, so asking again is cheap.
+    private void resumeCpu(Game game) {
+        if (isCpuTurn(game) && "IN_PROGRESS".equals(game.getStatus())) {
+            Long gameId = game.getId();
+            int expectedMoves = game.getMoveCount();
+            cpuMoves.think(game, cell -> applyCpuMove(gameId, cell, expectedMoves));
+        }
+    }
 
-            int cpuPos = findFirstEmpty(game.getBoard());
-            if (cpuPos >= 0) {
-                game.makeMove(cpuPos);
+    // after a restart, or when the ring hands this node other games: answer the large-board CPU
+    // turns whose search died with the node that was running it
+    @EventListener({ApplicationReadyEvent.class, ClusterChangedEvent.class})
+    public void resumeCpuGames() {
+        for (Long id : gameRepository.findLargeBoardCpuIds()) {
+            if (cluster.owns(id)) {
+                try {
+                    resumeCpu(engine.get(id));
+                } catch (RuntimeException e) {
+                    log.warn("Resuming CPU turn of game {} failed", id, e);
+                }
             }
         }
+    }
 
-        // status + stats
-        if (game.getWinner() != null && !game.getWinner().isEmpty()) {
-            game.setStatus("FINISHED");
+    // called from a CPU search thread; ignored if the game moved on (e.g. undo) while it was thinking
+    private void applyCpuMove(Long gameId, int cell, int expectedMoves) {
+        long start = System.nanoTime();
+        try {
+            publish(engine.update(gameId, g -> {
+                if (g.getMoveCount() != expectedMoves || !isCpuTurn(g) || cell < 0) {
+                    return;
+                }
+                g.makeMove(cell);
+                settleStatus(g);
+            }, this::recordResult));
+        } finally {
+            cpuMoveTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
 
-            if ("x".equalsIgnoreCase(game.getWinner())) {
-                addWin(game.getPlayerX());
-                addLoss(game.getPlayerO());
-            } else if ("o".equalsIgnoreCase(game.getWinner())) {
-                addWin(game.getPlayerO());
-                addLoss(game.getPlayerX());
-            } else if ("Draw".equalsIgnoreCase(game.getWinner())) {
-                addTie(game.getPlayerX());
-                addTie(game.getPlayerO());
-            }
+    private boolean isCpuTurn(Game game) {
+        return game.isVsCpu()
+                && "o".equalsIgnoreCase(game.getCurrentPlayer())
+                && game.getWinner() == null;
+    }
 
+    // status (stats are recorded by recordResult once the game is FINISHED)
+    private void settleStatus(Game game) {
+        if (game.getWinner() != null && !game.getWinner().isEmpty()) {
+            game.setStatus("FINISHED");
         } else {
             game.setStatus("IN_PROGRESS");
         }
-
-        return gameRepository.save(game);
     }
 
 
     // 5️⃣ Undo move (Restricted to CPU mode to prevent PvP trolling)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Game undoMove(Long gameId, String username) {
-        Game game = getGame(gameId);
-
-        // --- SECURITY CHECK ---
-        // Only allow undo if it is a Single Player game
-        if (!game.isVsCpu()) {
-            throw new RuntimeException("Undo is only allowed in Player vs CPU mode.");
+        long start = System.nanoTime();
+        try {
+            return undo(gameId, username);
+        } finally {
+            undoTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
+    }
 
+    private Game undo(Long gameId, String username) {
+        return publish(engine.update(gameId, game -> {
+            // --- SECURITY CHECK ---
+            // Only allow undo if it is a Single Player game
+            if (!game.isVsCpu()) {
+                throw new GameRuleException("Undo is only allowed in Player vs CPU mode.");
+            }
+
+            if (game.isClosed()) {
+                throw new GameRuleException("This game has been closed.");
+            }
 
-        if (!belongsToUser(game, username)) {
-            throw new RuntimeException("You are not allowed to undo moves in this game.");
-        }
 
-        game.undoMove();
+            if (!belongsToUser(game, username)) {
+                throw new GameRuleException("You are not allowed to undo moves in this game.");
+            }
 
-        // If playing against CPU, we usually want to undo TWICE (the CPU's move AND the Player's move)
-        // so the player can retry.
-        // Check if the undo left it as 'o' (CPU) turn. If so, undo one more time to get back to 'x'.
-        if (game.isVsCpu() && "o".equalsIgnoreCase(game.getCurrentPlayer())) {
             game.undoMove();
-        }
 
-        game.setStatus("IN_PROGRESS");
-        return gameRepository.save(game);
+            // If playing against CPU, we usually want to undo TWICE (the CPU's move AND the Player's move)
+            // so the player can retry.
+            // Check if the undo left it as 'o' (CPU) turn. If so, undo one more time to get back to 'x'.
+            if (game.isVsCpu() && "o".equalsIgnoreCase(game.getCurrentPlayer())) {
+                game.undoMove();
+            }
+
+            game.setStatus("IN_PROGRESS");
+        }));
     }
 
     // ===== Compatibility methods (so old calls don’t break) =====
@@ -141,19 +367,15 @@ public class GameService {
     public Game createNewGame() {
         Game game = new Game();
         game.initialize();
-        return gameRepository.save(game);
+        return engine.register(gameRepository.save(game));
     }
 
     public Game makeMove(Long gameId, int position) {
-        Game game = getGame(gameId);
-        game.makeMove(position);
-        return gameRepository.save(game);
+        return engine.update(gameId, game -> game.makeMove(position));
     }
 
     public Game undoMove(Long gameId) {
-        Game game = getGame(gameId);
-        game.undoMove();
-        return gameRepository.save(game);
+        return engine.update(gameId, Game::undoMove);
     }
 
     // ===== Helper logic =====
@@ -190,69 +412,164 @@ public class GameService {
                 (game.getPlayerO() != null && game.getPlayerO().getUsername().equals(username));
     }
 
+    // runs inside the transaction that writes the FINISHED row
+    private void recordResult(Game game) {
+        events.publishEvent(new GameFinishedEvent(game.getId(), idOf(game.getPlayerX()),
+                idOf(game.getPlayerO()), game.getWinner()));
+
+        if ("x".equalsIgnoreCase(game.getWinner())) {
+            addWin(game.getPlayerX());
+            addLoss(game.getPlayerO());
+        } else if ("o".equalsIgnoreCase(game.getWinner())) {
+            addWin(game.getPlayerO());
+            addLoss(game.getPlayerX());
+        } else if ("Draw".equalsIgnoreCase(game.getWinner())) {
+            addTie(game.getPlayerX());
+            addTie(game.getPlayerO());
+        }
+    }
+
+    private Long idOf(AppUser user) {
+        return user == null ? null : user.getId();
+    }
+
     private void addWin(AppUser user) {
         if (user == null) return;
-        user.setWins(user.getWins() + 1);
-        user.setGamesPlayed(user.getGamesPlayed() + 1);
-        userRepository.save(user);
+        userRepository.addWin(user.getUsername());
     }
 
     private void addLoss(AppUser user) {
         if (user == null) return;
-        user.setLosses(user.getLosses() + 1);
-        user.setGamesPlayed(user.getGamesPlayed() + 1);
-        userRepository.save(user);
+        userRepository.addLoss(user.getUsername());
     }
 
     private void addTie(AppUser user) {
         if (user == null) return;
-        user.setTies(user.getTies() + 1);
-        user.setGamesPlayed(user.getGamesPlayed() + 1);
-        userRepository.save(user);
+        userRepository.addTie(user.getUsername());
     }
 
-    private int findFirstEmpty(List<String> board) {
-        for (int i = 0; i < board.size(); i++) {
-            if ("-".equals(board.get(i))) {
-                return i;
-            }
-        }
-        return -1;
+    // pushed to /game/stream subscribers once the surrounding transaction commits; every change
+    // may have moved the clock, so the move timeout follows along
+    private Game publish(Game game) {
+        events.publishEvent(GameStateEvent.of(game));
+        return watchClock(game);
     }
 
-    public void joinGame(Long gameId, String username) {
-        Game game = getGame(gameId);
+    // ===== clocks =====
 
-        if (!"WAITING".equals(game.getStatus())) {
-            throw new RuntimeException("Game is not open for joining.");
+    // keep exactly one timeout pending per running clock, at the side to move's deadline
+    private Game watchClock(Game game) {
+        Long id = game.getId();
+        if (game.isClockRunning()) {
+            clocks.arm(id, game.getTurnDeadline(), () -> flagFall(id));
+        } else if (game.hasClock()) {
+            clocks.disarm(id);
         }
+        return game;
+    }
 
-        AppUser user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+    // the timeout fired: forfeit if the side to move really is out of time, else re-arm
+    private void flagFall(Long gameId) {
+        try {
+            Game game = engine.update(gameId, g -> {
+                if (System.currentTimeMillis() >= g.getTurnDeadline()) {
+                    forfeitOnTime(g);
+                }
+            }, this::recordResult);
+            if (game.isTimeForfeit()) {
+                publish(game);
+            } else {
+                watchClock(game);
+            }
+        } catch (RuntimeException e) {
+            clocks.disarm(gameId);
+            log.warn("Move timeout for game {} failed", gameId, e);
+        }
+    }
+
+    private void forfeitOnTime(Game game) {
+        game.forfeitOnTime();
+        timeForfeits.increment();
+    }
 
-        if (game.getPlayerX() != null &&
-                game.getPlayerX().getUsername().equals(username)) {
-            throw new RuntimeException("You cannot join your own game as O.");
+    // Timeouts live in memory: after a restart, or when the ring hands this node other games,
+    // arm the clocked games we now own (and drop the ones we gave away). Clocks themselves were
+    // rebuilt from the row and the move log's timestamps, so time spent while down still counts.
+    @EventListener({ApplicationReadyEvent.class, ClusterChangedEvent.class})
+    public void rearmClocks() {
+        for (Long id : List.copyOf(clocks.armedGames())) {
+            if (!cluster.owns(id)) {
+                clocks.disarm(id);
+            }
         }
+        for (Long id : gameRepository.findClockedIds()) {
+            if (cluster.owns(id)) {
+                watchClock(engine.get(id));
+            }
+        }
+    }
 
-        game.setPlayerO(user);
-        game.setStatus("IN_PROGRESS");
-        gameRepository.save(game);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void joinGame(Long gameId, String username) {
+        long start = System.nanoTime();
+        try {
+            join(gameId, username);
+        } finally {
+            joinTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
-    public List<Game> findOpenGames(String username) {
-        // all games that are WAITING
-        List<Game> waiting = gameRepository.findByStatus("WAITING");
+    private void join(Long gameId, String username) {
+        AppUser user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new GameRuleException("User not found: " + username));
 
-        //filter out my own games so I don't "join" myself
-        waiting.removeIf(g ->
-                g.getPlayerX() != null &&
-                        g.getPlayerX().getUsername().equals(username)
-        );
+        // the engine serialises joins, so two players racing for the same game can't both get O
+        publish(engine.update(gameId, game -> {
+            if (!"WAITING".equals(game.getStatus())) {
+                throw new GameRuleException("Game is not open for joining.");
+            }
 
-        return waiting;
+            if (game.getPlayerX() != null &&
+                    game.getPlayerX().getUsername().equals(username)) {
+                throw new GameRuleException("You cannot join your own game as O.");
+            }
+
+            game.setPlayerO(user);
+            game.setStatus("IN_PROGRESS");
+            game.startTurn(System.currentTimeMillis());
+        }));
     }
 
+    // The reaper's expiry: move the game from -> to if it is still there and still stale under the
+    // game lock. Watchers are told, and a clock that was running stops.
+    public Game closeStale(Long gameId, String from, String to, Predicate<Game> stale) {
+        Game game = engine.update(gameId, g -> {
+            if (from.equals(g.getStatus()) && stale.test(g)) {
+                g.setStatus(to);
+            }
+        });
+        return to.equals(game.getStatus()) ? publish(game) : game;
+    }
 
+    // WAITING games hosted by someone else; own games are excluded in the query
+    @Transactional(readOnly = true)
+    public GamePage findOpenGames(String username, String cursor, int size) {
+        Long userId = userIdOf(username);
+        if (userId == null) {
+            return GamePage.EMPTY;
+        }
+        GamePage.Cursor after = GamePage.Cursor.parse(cursor);
+        Limit limit = Limit.of(size + 1);
+        List<GameSummary> rows = after == null
+                ? gameRepository.findOpenSummaries(userId, limit)
+                : gameRepository.findOpenSummariesBefore(userId, after.createdAt(), after.id(), limit);
+        return GamePage.of(rows, size);
+    }
 
+    // null for unknown users, who simply have no games to list
+    private Long userIdOf(String username) {
+        return userRepository.findByUsername(username)
+                .map(AppUser::getId)
+                .orElse(null);
+    }
 }
@@ -0,0 +1,49 @@
+package org.example.tictactoe.service;
+
+import org.example.tictactoe.model.Game;
+
+import java.util.List;
+
+// published by GameService whenever a game changes; pushed to subscribers after commit
+public record GameStateEvent(Long gameId,
+                             List<String> board,
+                             String currentPlayer,
+                             String winner,
+                             String status,
+                             int boardSize,
+                             int winLength,
+                             long version,
+                             Clock clock) {
+
+    public static GameStateEvent of(Game game) {
+        return new GameStateEvent(game.getId(), game.getBoard(), game.getCurrentPlayer(),
+                game.getWinner(), game.getStatus(), game.getBoardSize(), game.getWinLength(),
+                game.getStateVersion(), Clock.of(game));
+    }
+
+    // time left as of now: x / o banks (the side to move's still draining) and this turn's
+    // allowance; null for games without a clock. Relative, so client clock skew doesn't matter.
+    public record Clock(long x, long o, long turn, boolean running, boolean timeForfeit) {
+
+        public static Clock of(Game game) {
+            if (!game.hasClock()) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            long x = game.timeLeftMs("x");
+            long o = game.timeLeftMs("o");
+            long turn = 0;
+            boolean running = game.isClockRunning();
+            if (running) {
+                long spent = Math.max(0, now - game.getTurnStartedAt());
+                turn = Math.max(0, game.getTurnDeadline() - now);
+                if ("x".equals(game.getCurrentPlayer())) {
+                    x = Math.max(0, x - spent);
+                } else {
+                    o = Math.max(0, o - spent);
+                }
+            }
+            return new Clock(x, o, turn, running, game.isTimeForfeit());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.tictactoe.service;
+
+import java.time.LocalDateTime;
+
+// one row of the "My Games" / "Open Games" lists, built straight from a JPQL constructor
+// expression so listing never loads boards or whole AppUser rows
+public final class GameSummary {
+
+    private final Long id;
+    private final String status;
+    private final String playerX;
+    private final String playerO;
+    private final LocalDateTime createdAt;
+
+    public GameSummary(Long id, String status, String playerX, String playerO, LocalDateTime createdAt) {
+        this.id = id;
+        this.status = status;
+        this.playerX = playerX;
+        this.playerO = playerO;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() { return id; }
+    public String getStatus() { return status; }
+    public String getPlayerX() { return playerX; }
+    public String getPlayerO() { return playerO; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,152 @@
+package org.example.tictactoe.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+// Fan-out of game state changes keyed by game id, replacing the 1s polling of /game/state:
+// Server-Sent Events streams, plus long-poll requests parked until the state version moves on.
+@Service
+public class GameUpdateBroadcaster {
+
+    // a parked /game/state?since= request
+    private record Waiter(long since, DeferredResult<ResponseEntity<GameStateEvent>> result) {
+    }
+
+    private static final ResponseEntity<GameStateEvent> NOT_MODIFIED = ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, List<Waiter>> waiters = new ConcurrentHashMap<>();
+    private final ObjectMapper json;
+    private final long timeoutMs;
+    private final long longPollTimeoutMs;
+
+    public GameUpdateBroadcaster(ObjectMapper json,
+                                 @Value("${tictactoe.push.timeout-ms:1800000}") long timeoutMs,
+                                 @Value("${tictactoe.push.long-poll-timeout-ms:25000}") long longPollTimeoutMs) {
+        this.json = json;
+        this.timeoutMs = timeoutMs;
+        this.longPollTimeoutMs = longPollTimeoutMs;
+    }
+
+    // Long-poll: answers as soon as the game is past version since, or with a 304 once the
+    // timeout passes. The parked request holds no thread. current is read again after parking,
+    // so a change that lands in between is not missed.
+    public DeferredResult<ResponseEntity<GameStateEvent>> await(Long gameId, long since, Supplier<GameStateEvent> current) {
+        DeferredResult<ResponseEntity<GameStateEvent>> result = new DeferredResult<>(longPollTimeoutMs, NOT_MODIFIED);
+        GameStateEvent state = current.get();
+        if (state.version() > since) {
+            result.setResult(ResponseEntity.ok(state));
+            return result;
+        }
+
+        Waiter waiter = new Waiter(since, result);
+        waiters.compute(gameId, (id, list) -> {
+            List<Waiter> parked = list != null ? list : new CopyOnWriteArrayList<>();
+            parked.add(waiter);
+            return parked;
+        });
+        result.onCompletion(() -> remove(gameId, waiter));
+
+        state = current.get();
+        if (state.version() > since) {
+            result.setResult(ResponseEntity.ok(state));
+        }
+        return result;
+    }
+
+    // open a stream for one game, sending the current state straight away
+    public SseEmitter subscribe(Long gameId, GameStateEvent initialState) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        // add inside compute so a concurrent remove() can't drop the list we're adding to
+        subscribers.compute(gameId, (id, emitters) -> {
+            List<SseEmitter> list = emitters != null ? emitters : new CopyOnWriteArrayList<>();
+            list.add(emitter);
+            return list;
+        });
+
+        emitter.onCompletion(() -> remove(gameId, emitter));
+        emitter.onTimeout(() -> remove(gameId, emitter));
+        emitter.onError(e -> remove(gameId, emitter));
+
+        send(gameId, emitter, serialize(initialState));
+        return emitter;
+    }
+
+    // runs after the move/undo/join transaction commits, so nobody sees uncommitted state
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStateChanged(GameStateEvent event) {
+        wake(event);
+        List<SseEmitter> emitters = subscribers.get(event.gameId());
+        if (emitters == null) {
+            return;
+        }
+        // serialized once, however many watchers the game has
+        String payload = serialize(event);
+        for (SseEmitter emitter : emitters) {
+            send(event.gameId(), emitter, payload);
+        }
+    }
+
+    private void wake(GameStateEvent event) {
+        List<Waiter> parked = waiters.get(event.gameId());
+        if (parked == null) {
+            return;
+        }
+        for (Waiter waiter : parked) {
+            if (event.version() > waiter.since()) {
+                waiter.result().setResult(ResponseEntity.ok(event)); // completion removes it
+            }
+        }
+    }
+
+    public int subscriberCount(Long gameId) {
+        List<SseEmitter> emitters = subscribers.get(gameId);
+        return emitters == null ? 0 : emitters.size();
+    }
+
+    private String serialize(GameStateEvent state) {
+        try {
+            return json.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize state of game " + state.gameId(), e);
+        }
+    }
+
+    private void send(Long gameId, SseEmitter emitter, String state) {
+        try {
+            emitter.send(SseEmitter.event().name("state").data(state, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // client went away, drop it
+            remove(gameId, emitter);
+        }
+    }
+
+    private void remove(Long gameId, Waiter waiter) {
+        waiters.computeIfPresent(gameId, (id, parked) -> {
+            parked.remove(waiter);
+            return parked.isEmpty() ? null : parked;
+        });
+    }
+
+    private void remove(Long gameId, SseEmitter emitter) {
+        subscribers.computeIfPresent(gameId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
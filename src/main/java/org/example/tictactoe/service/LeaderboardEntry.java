@@ -0,0 +1,36 @@
+package org.example.tictactoe.service;
+
+import org.example.tictactoe.AppUser;
+
+// immutable row of the cached leaderboard (getters so Thymeleaf and Jackson see the same fields)
+public final class LeaderboardEntry {
+
+    private final Long id;
+    private final String username;
+    private final int wins;
+    private final int losses;
+    private final int ties;
+    private final int gamesPlayed;
+
+    public LeaderboardEntry(Long id, String username, int wins, int losses, int ties, int gamesPlayed) {
+        this.id = id;
+        this.username = username;
+        this.wins = wins;
+        this.losses = losses;
+        this.ties = ties;
+        this.gamesPlayed = gamesPlayed;
+    }
+
+    public static LeaderboardEntry of(AppUser user) {
+        return new LeaderboardEntry(user.getId(), user.getUsername(), user.getWins(),
+                user.getLosses(), user.getTies(), user.getGamesPlayed());
+    }
+
+    Long id() { return id; }
+
+    public String getUsername() { return username; }
+    public int getWins() { return wins; }
+    public int getLosses() { return losses; }
+    public int getTies() { return ties; }
+    public int getGamesPlayed() { return gamesPlayed; }
+}
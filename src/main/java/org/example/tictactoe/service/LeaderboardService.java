@@ -0,0 +1,174 @@
+package org.example.tictactoe.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.tictactoe.AppUser;
+import org.example.tictactoe.repository.AppUserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Top-N leaderboard kept in memory and patched on every finished game.
+// Reads come from an immutable snapshot; its version, with the page, is the HTTP ETag.
+@Service
+public class LeaderboardService {
+
+    // most wins first, username keeps ties stable
+    private static final Comparator<LeaderboardEntry> ORDER = Comparator
+            .comparingInt(LeaderboardEntry::getWins).reversed()
+            .thenComparing(LeaderboardEntry::getUsername);
+
+    public record Snapshot(long version, List<LeaderboardEntry> entries) {
+    }
+
+    private final AppUserRepository userRepository;
+    private final int capacity;
+    private final Timer memoryPageTime;
+    private final Timer dbPageTime;
+
+    // ranking + index by user id, only touched under lock
+    private final TreeSet<LeaderboardEntry> ranking = new TreeSet<>(ORDER);
+    private final Map<Long, LeaderboardEntry> byId = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // keeps ETags from one run from matching another run's versions
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private volatile Snapshot snapshot = new Snapshot(0, List.of());
+
+    public LeaderboardService(AppUserRepository userRepository, MeterRegistry registry,
+                              @Value("${tictactoe.leaderboard.size:100}") int capacity) {
+        this.userRepository = userRepository;
+        this.capacity = capacity;
+        this.memoryPageTime = pageTimer(registry, "memory");
+        this.dbPageTime = pageTimer(registry, "db");
+    }
+
+    private static Timer pageTimer(MeterRegistry registry, String source) {
+        return Timer.builder("tictactoe.leaderboard.query")
+                .description("Time to serve one leaderboard page")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    // ===== reads =====
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public List<LeaderboardEntry> top(int n) {
+        List<LeaderboardEntry> entries = snapshot.entries();
+        return entries.subList(0, Math.min(n, entries.size()));
+    }
+
+    // pages inside the cached top-N are free; deeper pages go to the wins index
+    public List<LeaderboardEntry> page(int page, int size) {
+        return page(snapshot, page, size);
+    }
+
+    public List<LeaderboardEntry> page(Snapshot snapshot, int page, int size) {
+        long start = System.nanoTime();
+        if (inMemory(page, size)) {
+            int from = page * size;
+            List<LeaderboardEntry> entries = snapshot.entries();
+            List<LeaderboardEntry> rows = entries.subList(Math.min(from, entries.size()), Math.min(from + size, entries.size()));
+            memoryPageTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return rows;
+        }
+        List<LeaderboardEntry> rows = userRepository.findByOrderByWinsDescUsernameAsc(PageRequest.of(page, size))
+                .stream()
+                .map(LeaderboardEntry::of)
+                .toList();
+        dbPageTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return rows;
+    }
+
+    // ETag of one page of snapshot, so no page's tag can answer for another; null for pages read
+    // from the DB, which change without the snapshot's version moving
+    public String etag(Snapshot snapshot, int page, int size) {
+        if (!inMemory(page, size)) {
+            return null;
+        }
+        return "\"lb-" + bootId + "-" + snapshot.version() + "-" + page + "-" + size + "\"";
+    }
+
+    private boolean inMemory(int page, int size) {
+        return (long) page * size + size <= capacity;
+    }
+
+    // ===== maintenance =====
+
+    // cold rebuild from the DB; also runs periodically to pick up changes made elsewhere
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${tictactoe.leaderboard.rebuild-interval-ms:60000}",
+            initialDelayString = "${tictactoe.leaderboard.rebuild-interval-ms:60000}")
+    public void rebuild() {
+        lock.lock();
+        try {
+            // read under the lock so a concurrent refresh can't be overwritten by older rows
+            List<AppUser> top = userRepository.findByOrderByWinsDescUsernameAsc(PageRequest.of(0, capacity));
+            ranking.clear();
+            byId.clear();
+            top.forEach(this::upsert);
+            publishSnapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onGameFinished(GameFinishedEvent event) {
+        List<Long> ids = Stream.of(event.playerXId(), event.playerOId())
+                .filter(id -> id != null)
+                .toList();
+        if (!ids.isEmpty()) {
+            refresh(userRepository.findAllById(ids));
+        }
+    }
+
+    // re-rank users whose stats just changed (or who just registered)
+    public void refresh(Iterable<AppUser> users) {
+        lock.lock();
+        try {
+            users.forEach(this::upsert);
+            publishSnapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // caller holds lock. Wins only ever grow, so anyone outside the top-N can only enter it
+    // through an update we see here; trimming the tail keeps the set exact.
+    private void upsert(AppUser user) {
+        LeaderboardEntry previous = byId.remove(user.getId());
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        LeaderboardEntry entry = LeaderboardEntry.of(user);
+        ranking.add(entry);
+        byId.put(entry.id(), entry);
+
+        while (ranking.size() > capacity) {
+            byId.remove(ranking.pollLast().id());
+        }
+    }
+
+    // caller holds lock
+    private void publishSnapshot() {
+        long version = snapshot.version() + 1;
+        snapshot = new Snapshot(version, List.copyOf(ranking));
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.tictactoe.service;
+
+import jakarta.annotation.PostConstruct;
+import org.example.tictactoe.model.Game;
+import org.example.tictactoe.repository.GameRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+// Games written before the board moved onto the game row kept it in two @ElementCollection tables,
+// game_move_history and game_board, each with a foreign key to game. ddl-auto=update never drops
+// them, so on an upgraded database those games would load empty and could never be deleted.
+// At startup every such game gets its moves (and the board they give) copied onto its row, a batch
+// per transaction that also deletes the batch's legacy rows, then both tables are dropped. Safe to
+// re-run after a crash; a fresh database has neither table and this is one metadata query.
+//
+// The collections had no order column, so moves are read back in physical row order, as Hibernate
+// itself got them: by ctid on PostgreSQL, as the table scan returns them elsewhere. Legacy games
+// are all 3x3, X first.
+@Service
+public class LegacyGameTables {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyGameTables.class);
+
+    private static final String MOVES = "game_move_history";
+    private static final String BOARD = "game_board";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbc;
+    private final GameRepository gameRepository;
+    private final TransactionTemplate transactions;
+
+    public LegacyGameTables(JdbcTemplate jdbc, GameRepository gameRepository,
+                            TransactionTemplate transactions) {
+        this.jdbc = jdbc;
+        this.gameRepository = gameRepository;
+        this.transactions = transactions;
+    }
+
+    // before the engine recovers anything (ApplicationReadyEvent) or a request can load a game
+    @PostConstruct
+    public void migrateOnStartup() {
+        int migrated = migrate();
+        if (migrated > 0) {
+            log.info("Moved the boards of {} legacy games onto their rows, dropped {} and {}",
+                    migrated, MOVES, BOARD);
+        }
+    }
+
+    // backfill every legacy game, then drop both tables; returns the number of games backfilled
+    public int migrate() {
+        if (!exists(MOVES) && !exists(BOARD)) {
+            return 0;
+        }
+        int total = 0;
+        if (exists(MOVES)) {
+            while (true) {
+                List<Long> ids = jdbc.queryForList("select distinct game_id from " + MOVES
+                        + " order by game_id limit " + BATCH_SIZE, Long.class);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                transactions.executeWithoutResult(status -> backfill(ids));
+                total += ids.size();
+            }
+        }
+        transactions.executeWithoutResult(status -> {
+            jdbc.execute("drop table if exists " + BOARD);
+            jdbc.execute("drop table if exists " + MOVES);
+        });
+        return total;
+    }
+
+    // Caller's transaction: copy these games' legacy moves onto their rows and delete the legacy
+    // rows, so the games can be read and deleted. A no-op once the tables are gone.
+    public void backfill(Collection<Long> ids) {
+        if (ids.isEmpty() || !exists(MOVES)) {
+            return;
+        }
+        String order = rowOrder();
+        for (Long id : ids) {
+            List<Integer> moves = jdbc.queryForList("select move_history from " + MOVES + " where game_id = ?"
+                    + (order == null ? "" : " order by " + order), Integer.class, id);
+            moves.removeIf(Objects::isNull);
+            if (!moves.isEmpty()) {
+                gameRepository.findById(id).ifPresent(game -> {
+                    game.setMoveHistory(moves);
+                    game.setBoard(boardOf(moves, game.getCellCount()));
+                    gameRepository.saveAndFlush(game);
+                });
+            }
+            jdbc.update("delete from " + MOVES + " where game_id = ?", id);
+            if (exists(BOARD)) {
+                jdbc.update("delete from " + BOARD + " where game_id = ?", id);
+            }
+        }
+    }
+
+    private static List<String> boardOf(List<Integer> moves, int cells) {
+        List<String> board = new ArrayList<>(cells);
+        for (int i = 0; i < cells; i++) {
+            board.add("-");
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            board.set(moves.get(i), i % 2 == 0 ? "x" : "o");
+        }
+        return board;
+    }
+
+    private boolean exists(String table) {
+        Integer count = jdbc.queryForObject("select count(*) from information_schema.tables"
+                + " where lower(table_name) = ?", Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    // the pseudo-column that follows insertion order, or null to take rows as the DB returns them
+    private String rowOrder() {
+        String product = jdbc.execute(
+                (ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product) ? "ctid" : null;
+    }
+}
@@ -0,0 +1,336 @@
+package org.example.tictactoe.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.tictactoe.AppUser;
+import org.example.tictactoe.model.BoardVariant;
+import org.example.tictactoe.model.CpuDifficulty;
+import org.example.tictactoe.model.Game;
+import org.example.tictactoe.repository.AppUserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory PvP matchmaking. Waiting players sit in FIFO queues keyed by board variant and
+// rating bucket; a newcomer is paired with the oldest compatible waiter by looking at no more
+// than three queue heads (own bucket and its neighbours), and the game is created with both
+// seats filled, so there is nothing left to race for. Both players hear about it over SSE.
+// Whoever waits past the timeout gets a CPU game instead (or is dropped, if that's switched off).
+@Service
+public class MatchmakingService {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchmakingService.class);
+
+    // state: QUEUED, MATCHED, TIMED_OUT, CANCELLED or NONE; gameId is set once MATCHED
+    public record MatchStatus(String state, Long gameId, boolean vsCpu, long waitedMs) {
+    }
+
+    private static final MatchStatus NONE = new MatchStatus("NONE", null, false, 0);
+
+    private record QueueKey(BoardVariant variant, long bucket) {
+    }
+
+    private static final class Ticket {
+        final String username;
+        final int rating;
+        final QueueKey key;
+        final long enqueuedAt = System.nanoTime();
+        // taken out of the queue by a pairing or the sweeper; only touched under lock
+        boolean claimed;
+        volatile String state = "QUEUED";
+        volatile Long gameId;
+        volatile boolean vsCpu;
+        volatile long finishedAt;
+
+        Ticket(String username, int rating, QueueKey key) {
+            this.username = username;
+            this.rating = rating;
+            this.key = key;
+        }
+
+        boolean waiting() {
+            return "QUEUED".equals(state) && !claimed;
+        }
+
+        MatchStatus status() {
+            long end = "QUEUED".equals(state) ? System.nanoTime() : finishedAt;
+            return new MatchStatus(state, gameId, vsCpu, TimeUnit.NANOSECONDS.toMillis(end - enqueuedAt));
+        }
+    }
+
+    private final GameService gameService;
+    private final AppUserRepository userRepository;
+    private final int ratingBand;
+    private final long timeoutNanos;
+    private final boolean cpuFallback;
+    private final CpuDifficulty cpuDifficulty;
+    private final long pushTimeoutMs;
+
+    // queues only touched under lock; tickets are readable without it
+    private final Map<QueueKey, ArrayDeque<Ticket>> queues = new HashMap<>();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    // time spent queued, one timer per way out, registered once
+    private final Timer matched;
+    private final Timer matchedCpu;
+    private final Timer cancelled;
+    private final Timer timedOut;
+
+    public MatchmakingService(GameService gameService, AppUserRepository userRepository, MeterRegistry registry,
+                              @Value("${tictactoe.matchmaking.rating-band:0}") int ratingBand,
+                              @Value("${tictactoe.matchmaking.timeout-ms:30000}") long timeoutMs,
+                              @Value("${tictactoe.matchmaking.cpu-fallback:true}") boolean cpuFallback,
+                              @Value("${tictactoe.matchmaking.cpu-difficulty:MEDIUM}") CpuDifficulty cpuDifficulty,
+                              @Value("${tictactoe.push.timeout-ms:1800000}") long pushTimeoutMs) {
+        this.gameService = gameService;
+        this.userRepository = userRepository;
+        this.ratingBand = ratingBand;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.cpuFallback = cpuFallback;
+        this.cpuDifficulty = cpuDifficulty;
+        this.pushTimeoutMs = pushTimeoutMs;
+        registry.gauge("tictactoe.matchmaking.queue", waiting);
+        this.matched = waitTimer(registry, "matched");
+        this.matchedCpu = waitTimer(registry, "cpu");
+        this.cancelled = waitTimer(registry, "cancelled");
+        this.timedOut = waitTimer(registry, "timeout");
+    }
+
+    private static Timer waitTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("tictactoe.matchmaking.wait")
+                .description("Time from joining the matchmaking queue to leaving it")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    // ===== queue =====
+
+    public MatchStatus enqueue(String username, BoardVariant variant) {
+        AppUser user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new GameRuleException("User not found: " + username));
+        int rating = ratingOf(user);
+        BoardVariant board = variant != null ? variant : BoardVariant.CLASSIC;
+        Ticket ticket = new Ticket(username, rating, new QueueKey(board, bucketOf(rating)));
+
+        Ticket opponent;
+        lock.lock();
+        try {
+            Ticket existing = tickets.get(username);
+            if (existing != null && "QUEUED".equals(existing.state)) {
+                return existing.status(); // already waiting (or being paired)
+            }
+            tickets.put(username, ticket);
+            opponent = pollOpponent(ticket);
+            if (opponent == null) {
+                queues.computeIfAbsent(ticket.key, k -> new ArrayDeque<>()).addLast(ticket);
+                waiting.incrementAndGet();
+                return ticket.status();
+            }
+            ticket.claimed = true;
+            waiting.decrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+
+        // DB insert outside the lock; the player who waited longer opens as X
+        Game game;
+        try {
+            game = gameService.createMatchedGame(opponent.username, username, board);
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                opponent.claimed = false;
+                queues.computeIfAbsent(opponent.key, k -> new ArrayDeque<>()).addFirst(opponent);
+                waiting.incrementAndGet();
+                tickets.remove(username, ticket);
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+        finish(opponent, "MATCHED", game.getId(), false, matched);
+        finish(ticket, "MATCHED", game.getId(), false, matched);
+        return ticket.status();
+    }
+
+    public MatchStatus status(String username) {
+        Ticket ticket = tickets.get(username);
+        return ticket == null ? NONE : ticket.status();
+    }
+
+    public MatchStatus cancel(String username) {
+        Ticket ticket;
+        lock.lock();
+        try {
+            ticket = tickets.get(username);
+            if (ticket == null || !ticket.waiting()) {
+                return status(username);
+            }
+            // left in its deque and skipped when it reaches the head
+            ticket.claimed = true;
+            waiting.decrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+        finish(ticket, "CANCELLED", null, false, cancelled);
+        return ticket.status();
+    }
+
+    public int queueDepth() {
+        return waiting.get();
+    }
+
+    // caller holds lock. Only queue heads are looked at, so a waiter behind an out-of-band head
+    // waits for the next newcomer (or the timeout) rather than costing everyone a scan.
+    private Ticket pollOpponent(Ticket ticket) {
+        long[] buckets = ratingBand > 0
+                ? new long[]{ticket.key.bucket(), ticket.key.bucket() - 1, ticket.key.bucket() + 1}
+                : new long[]{ticket.key.bucket()};
+        for (long bucket : buckets) {
+            ArrayDeque<Ticket> queue = queues.get(new QueueKey(ticket.key.variant(), bucket));
+            if (queue == null) {
+                continue;
+            }
+            while (!queue.isEmpty() && !queue.peekFirst().waiting()) {
+                queue.pollFirst(); // cancelled tickets are dropped lazily
+            }
+            Ticket head = queue.peekFirst();
+            if (head != null && (ratingBand <= 0 || Math.abs(head.rating - ticket.rating) <= ratingBand)) {
+                queue.pollFirst();
+                head.claimed = true;
+                return head;
+            }
+        }
+        return null;
+    }
+
+    // rough strength from the win/loss record; there is no Elo in the user table
+    private static int ratingOf(AppUser user) {
+        return 1000 + 25 * (user.getWins() - user.getLosses());
+    }
+
+    private long bucketOf(int rating) {
+        return ratingBand > 0 ? Math.floorDiv(rating, ratingBand) : 0;
+    }
+
+    // ===== timeouts =====
+
+    @Scheduled(fixedDelayString = "${tictactoe.matchmaking.sweep-interval-ms:1000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        List<Ticket> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            // queues are FIFO, so expired tickets are always at the head
+            for (Iterator<ArrayDeque<Ticket>> it = queues.values().iterator(); it.hasNext(); ) {
+                ArrayDeque<Ticket> queue = it.next();
+                while (!queue.isEmpty()
+                        && (!queue.peekFirst().waiting() || now - queue.peekFirst().enqueuedAt >= timeoutNanos)) {
+                    Ticket ticket = queue.pollFirst();
+                    if (ticket.waiting()) {
+                        ticket.claimed = true;
+                        waiting.decrementAndGet();
+                        expired.add(ticket);
+                    }
+                }
+                if (queue.isEmpty()) {
+                    it.remove();
+                }
+            }
+            // forget outcomes nobody came back for
+            tickets.values().removeIf(t -> !"QUEUED".equals(t.state) && now - t.finishedAt >= timeoutNanos);
+        } finally {
+            lock.unlock();
+        }
+
+        for (Ticket ticket : expired) {
+            if (!cpuFallback) {
+                finish(ticket, "TIMED_OUT", null, false, timedOut);
+                continue;
+            }
+            try {
+                Game game = gameService.createNewGameForUser(ticket.username, true, cpuDifficulty, ticket.key.variant());
+                finish(ticket, "MATCHED", game.getId(), true, matchedCpu);
+            } catch (RuntimeException e) {
+                log.warn("CPU fallback for {} failed", ticket.username, e);
+                finish(ticket, "TIMED_OUT", null, false, timedOut);
+            }
+        }
+    }
+
+    private void finish(Ticket ticket, String state, Long gameId, boolean vsCpu, Timer waited) {
+        ticket.gameId = gameId;
+        ticket.vsCpu = vsCpu;
+        ticket.finishedAt = System.nanoTime();
+        ticket.state = state;
+        waited.record(ticket.finishedAt - ticket.enqueuedAt, TimeUnit.NANOSECONDS);
+        notify(ticket.username, ticket.status(), true);
+    }
+
+    // ===== push =====
+
+    // SSE channel for one player's ticket; the current status is sent straight away
+    public SseEmitter subscribe(String username) {
+        SseEmitter emitter = new SseEmitter(pushTimeoutMs);
+        subscribers.compute(username, (user, emitters) -> {
+            List<SseEmitter> list = emitters != null ? emitters : new CopyOnWriteArrayList<>();
+            list.add(emitter);
+            return list;
+        });
+        emitter.onCompletion(() -> remove(username, emitter));
+        emitter.onTimeout(() -> remove(username, emitter));
+        emitter.onError(e -> remove(username, emitter));
+
+        MatchStatus current = status(username);
+        send(username, emitter, current, !"QUEUED".equals(current.state()));
+        return emitter;
+    }
+
+    private void notify(String username, MatchStatus status, boolean last) {
+        List<SseEmitter> emitters = subscribers.get(username);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(username, emitter, status, last);
+        }
+    }
+
+    private void send(String username, SseEmitter emitter, MatchStatus status, boolean last) {
+        try {
+            emitter.send(SseEmitter.event().name("match").data(status));
+            if (last) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            remove(username, emitter);
+        }
+    }
+
+    private void remove(String username, SseEmitter emitter) {
+        subscribers.computeIfPresent(username, (user, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
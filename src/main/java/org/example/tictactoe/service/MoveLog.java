@@ -0,0 +1,104 @@
+package org.example.tictactoe.service;
+
+import org.example.tictactoe.model.Game;
+import org.example.tictactoe.model.GameMove;
+import org.example.tictactoe.repository.GameMoveRepository;
+import org.example.tictactoe.repository.GameRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+// Append-only move log behind GameEngine. Every move or take-back is one inserted GameMove row,
+// written before the engine answers; the Game row is only a periodic snapshot on top of it.
+@Service
+public class MoveLog {
+
+    private final GameMoveRepository moveRepository;
+    private final GameRepository gameRepository;
+    private final TransactionTemplate transactions;
+
+    public MoveLog(GameMoveRepository moveRepository, GameRepository gameRepository,
+                   TransactionTemplate transactions) {
+        this.moveRepository = moveRepository;
+        this.gameRepository = gameRepository;
+        this.transactions = transactions;
+    }
+
+    // Log what one engine update did to game, which had movesBefore moves when it started.
+    // An update either plays moves (a human move plus the CPU reply) or takes them back, never
+    // both, so the difference in move count says it all. All entries go in one insert batch.
+    public void append(Game game, int movesBefore) {
+        int movesAfter = game.getMoveCount();
+        if (movesAfter == movesBefore) {
+            return;
+        }
+        int logged = game.getLoggedEvents();
+        List<GameMove> entries = transactions.execute(status -> {
+            Game ref = gameRepository.getReferenceById(game.getId());
+            List<GameMove> batch = new ArrayList<>();
+            int number = logged;
+            for (int i = movesBefore - 1; i >= movesAfter; i--) {
+                batch.add(new GameMove(ref, ++number, GameMove.UNDO, playerOf(i)));
+            }
+            for (int i = movesBefore; i < movesAfter; i++) {
+                batch.add(new GameMove(ref, ++number, game.getMoveAt(i), playerOf(i)));
+            }
+            return moveRepository.saveAll(batch);
+        });
+        game.setLoggedEvents(logged + entries.size());
+    }
+
+    // bring a snapshot loaded from the DB up to date with the log; returns entries applied.
+    // Moves carry their time, so a clocked game's clocks come back as they were too.
+    public int replayTail(Game snapshot) {
+        List<GameMove> tail = moveRepository.findByGame_IdAndMoveNumberGreaterThanOrderByMoveNumber(
+                snapshot.getId(), snapshot.getLoggedEvents());
+        for (GameMove entry : tail) {
+            entry.applyTo(snapshot);
+            if (!entry.isUndo()) {
+                snapshot.punchClock(entry.getPlayedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+            snapshot.setLoggedEvents(entry.getMoveNumber());
+            snapshot.bumpStateVersion();
+        }
+        return tail.size();
+    }
+
+    // the game as it stood after its first upTo log entries, rebuilt from an empty board.
+    // Archived games have no log left, only their final line of play: replay that instead.
+    public Game replay(Game game, int upTo) {
+        Game replayed = game.snapshot();
+        replayed.initialize(game.getBoardSize(), game.getWinLength());
+        replayed.setStatus("IN_PROGRESS");
+        replayed.setLoggedEvents(0);
+        List<GameMove> entries = moveRepository.findByGame_IdAndMoveNumberLessThanEqualOrderByMoveNumber(game.getId(), upTo);
+        if (entries.isEmpty()) {
+            for (int i = 0; i < Math.min(upTo, game.getMoveCount()); i++) {
+                replayed.makeMove(game.getMoveAt(i));
+                replayed.setLoggedEvents(i + 1);
+            }
+            return endedOnTime(replayed, game, upTo >= game.getMoveCount());
+        }
+        for (GameMove entry : entries) {
+            entry.applyTo(replayed);
+            replayed.setLoggedEvents(entry.getMoveNumber());
+        }
+        return endedOnTime(replayed, game, upTo >= game.getLoggedEvents());
+    }
+
+    // a loss on time isn't a log entry or a move: the full line of play ends the way the game did
+    private static Game endedOnTime(Game replayed, Game game, boolean toTheEnd) {
+        if (toTheEnd && game.isTimeForfeit() && replayed.getWinner() == null) {
+            replayed.forfeitOnTime();
+        }
+        return replayed;
+    }
+
+    // X always opens, so even move indexes are X's
+    private static String playerOf(int moveIndex) {
+        return moveIndex % 2 == 0 ? "x" : "o";
+    }
+}
@@ -0,0 +1,221 @@
+package org.example.tictactoe.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.tictactoe.AppUser;
+import org.example.tictactoe.model.PuzzleProgress;
+import org.example.tictactoe.puzzle.Puzzle;
+import org.example.tictactoe.puzzle.PuzzleDifficulty;
+import org.example.tictactoe.puzzle.PuzzleIndex;
+import org.example.tictactoe.repository.AppUserRepository;
+import org.example.tictactoe.repository.PuzzleProgressRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Puzzles come from the PuzzleIndex built (or mapped from tictactoe.puzzles.index-file) at
+// startup, so serving one and checking an answer never touch the DB. Each user walks every
+// difficulty in index order; that progress is read once per user and difficulty, kept in
+// memory, and written behind in batches on a schedule, like GameEngine's snapshots.
+@Service
+public class PuzzleService {
+
+    private static final Logger log = LoggerFactory.getLogger(PuzzleService.class);
+
+    private final PuzzleIndex index;
+    private final PuzzleProgressRepository progressRepository;
+    private final AppUserRepository userRepository;
+    private final TransactionTemplate transactions;
+    private final Map<Key, Progress> progress = new ConcurrentHashMap<>();
+    private final Counter correct;
+    private final Counter wrong;
+
+    public PuzzleService(PuzzleProgressRepository progressRepository,
+                         AppUserRepository userRepository,
+                         TransactionTemplate transactions,
+                         MeterRegistry registry,
+                         @Value("${tictactoe.puzzles.index-file:}") String indexFile) {
+        this.progressRepository = progressRepository;
+        this.userRepository = userRepository;
+        this.transactions = transactions;
+        this.index = indexFile.isBlank() ? PuzzleIndex.build() : PuzzleIndex.open(Path.of(indexFile));
+        this.correct = answers(registry, "correct");
+        this.wrong = answers(registry, "wrong");
+        log.info("Puzzle index ready: {} easy, {} medium, {} hard", index.count(PuzzleDifficulty.EASY),
+                index.count(PuzzleDifficulty.MEDIUM), index.count(PuzzleDifficulty.HARD));
+    }
+
+    private static Counter answers(MeterRegistry registry, String result) {
+        return Counter.builder("tictactoe.puzzle.answers")
+                .description("Puzzle answers checked")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    // the puzzle a user is on, with their score for that difficulty
+    public record Current(Puzzle puzzle, int solved, int attempts, int total) {
+    }
+
+    public record Answer(boolean correct, int solutions, Current next) {
+    }
+
+    private record Key(Long userId, PuzzleDifficulty difficulty) {
+    }
+
+    // in-memory progress; changes vs flushed tells the flusher it is dirty
+    private static final class Progress {
+        final Key key;
+        final ReentrantLock lock = new ReentrantLock();
+        volatile Long rowId;
+        int cursor;
+        int solved;
+        int attempts;
+        long changes;
+        long flushed;
+
+        Progress(Key key) {
+            this.key = key;
+        }
+    }
+
+    public PuzzleIndex index() {
+        return index;
+    }
+
+    public Current current(String username, PuzzleDifficulty difficulty) {
+        Progress entry = progressOf(username, difficulty);
+        entry.lock.lock();
+        try {
+            return currentOf(entry);
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    // Any solving move is right. A right answer to the user's current puzzle moves them on;
+    // answering any other puzzle (an old tab) only counts the attempt.
+    public Answer answer(String username, int puzzleId, int cell) {
+        if (!index.contains(puzzleId)) {
+            throw new GameRuleException("Puzzle not found");
+        }
+        Puzzle puzzle = index.get(puzzleId);
+        boolean right = puzzle.isSolution(cell);
+        (right ? correct : wrong).increment();
+
+        Progress entry = progressOf(username, puzzle.difficulty());
+        entry.lock.lock();
+        try {
+            entry.attempts++;
+            if (right && index.idOf(puzzle.difficulty(), entry.cursor) == puzzleId) {
+                entry.cursor++;
+                entry.solved++;
+            }
+            entry.changes++;
+            return new Answer(right, right ? puzzle.solutions() : 0, currentOf(entry));
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    // caller holds entry.lock
+    private Current currentOf(Progress entry) {
+        PuzzleDifficulty difficulty = entry.key.difficulty();
+        return new Current(index.get(index.idOf(difficulty, entry.cursor)), entry.solved, entry.attempts,
+                index.count(difficulty));
+    }
+
+    private Progress progressOf(String username, PuzzleDifficulty difficulty) {
+        Long userId = userRepository.findByUsername(username)
+                .map(AppUser::getId)
+                .orElseThrow(() -> new GameRuleException("User not found: " + username));
+        return progress.computeIfAbsent(new Key(userId, difficulty), this::load);
+    }
+
+    private Progress load(Key key) {
+        Progress entry = new Progress(key);
+        progressRepository.findByUser_IdAndDifficulty(key.userId(), key.difficulty()).ifPresent(row -> {
+            entry.rowId = row.getId();
+            entry.cursor = row.getCursor();
+            entry.solved = row.getSolved();
+            entry.attempts = row.getAttempts();
+        });
+        return entry;
+    }
+
+    // ===== write-behind =====
+
+    @Scheduled(fixedDelayString = "${tictactoe.puzzles.flush-interval-ms:5000}")
+    public void flush() {
+        List<Progress> dirty = new ArrayList<>();
+        List<Long> marks = new ArrayList<>();
+        List<PuzzleProgress> rows = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Progress entry : progress.values()) {
+            entry.lock.lock();
+            try {
+                if (entry.changes == entry.flushed) {
+                    continue;
+                }
+                PuzzleProgress row = new PuzzleProgress(userRepository.getReferenceById(entry.key.userId()),
+                        entry.key.difficulty());
+                row.setId(entry.rowId);
+                row.update(entry.cursor, entry.solved, entry.attempts, now);
+                rows.add(row);
+                dirty.add(entry);
+                marks.add(entry.changes);
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<PuzzleProgress> saved = transactions.execute(status -> progressRepository.saveAll(rows));
+            for (int i = 0; i < dirty.size(); i++) {
+                written(dirty.get(i), saved.get(i), marks.get(i));
+            }
+        } catch (RuntimeException e) {
+            // one bad row fails the whole batch: write them one at a time so only that row is lost
+            log.warn("Writing {} puzzle progress rows failed, retrying one by one", rows.size(), e);
+            for (int i = 0; i < dirty.size(); i++) {
+                retry(dirty.get(i), rows.get(i), marks.get(i));
+            }
+        }
+    }
+
+    private void retry(Progress entry, PuzzleProgress row, long mark) {
+        row.setId(entry.rowId); // the rolled-back insert may have given it a sequence id
+        try {
+            written(entry, transactions.execute(status -> progressRepository.save(row)), mark);
+        } catch (RuntimeException e) {
+            // e.g. another node inserted the same user's row first: forget ours, reload on next use
+            progress.remove(entry.key, entry);
+            log.warn("Writing puzzle progress for user {} ({}) failed, dropped from memory",
+                    entry.key.userId(), entry.key.difficulty(), e);
+        }
+    }
+
+    private static void written(Progress entry, PuzzleProgress saved, long mark) {
+        entry.rowId = saved.getId();
+        entry.flushed = mark;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.tictactoe.sim;
+
+import org.example.tictactoe.cpu.CpuStrategy;
+import org.example.tictactoe.model.Game;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Strategy-vs-strategy self-play on 3x3, spread over a fork-join pool. The game range is split
+// in halves down to CHUNK games; each leaf plays its games through one reused Game on its
+// worker thread (Game.reset / makeMove, strategies on bit masks), counting in locals and
+// adding to the shared tally once at the end. Nothing is allocated per game and no game is
+// kept, so millions of games cost the same memory as one.
+//
+// Every game is also checked against the engine: a strategy playing an occupied cell, or an
+// end that isWin / isDraw disagree with, fails the run.
+// Plain Java on purpose: no Spring context, no JPA, nothing is written anywhere.
+public final class SelfPlay {
+
+    static final int CHUNK = 16_384;
+    static final int MAX_MOVES = 9;
+
+    private SelfPlay() {
+    }
+
+    // x opens; the first openingPlies moves of every game are random, to vary the games
+    // deterministic strategies would otherwise repeat
+    public record Match(String xName, CpuStrategy x, String oName, CpuStrategy o, long games, int openingPlies) {
+    }
+
+    // plays the whole match, handing a running total to progress every reportEveryMs and the
+    // final one when done (also returned)
+    public static SelfPlayResult run(Match match, ForkJoinPool pool, long reportEveryMs, Consumer<SelfPlayResult> progress) {
+        Tally tally = new Tally();
+        long start = System.nanoTime();
+        ForkJoinTask<Void> task = pool.submit(new Play(match, tally, 0, match.games()));
+        while (true) {
+            try {
+                task.get(reportEveryMs, TimeUnit.MILLISECONDS);
+                break;
+            } catch (TimeoutException e) {
+                progress.accept(tally.snapshot(match, System.nanoTime() - start));
+            } catch (InterruptedException e) {
+                task.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Self-play interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Self-play failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        SelfPlayResult result = tally.snapshot(match, System.nanoTime() - start);
+        progress.accept(result);
+        return result;
+    }
+
+    // one reused board per worker thread
+    private static final ThreadLocal<Game> BOARDS = ThreadLocal.withInitial(() -> {
+        Game game = new Game();
+        game.initialize(Game.CLASSIC_SIZE, Game.CLASSIC_SIZE);
+        return game;
+    });
+
+    private static final class Play extends RecursiveAction {
+        private final Match match;
+        private final Tally tally;
+        private final long from;
+        private final long to;
+
+        Play(Match match, Tally tally, long from, long to) {
+            this.match = match;
+            this.tally = tally;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                long mid = (from + to) >>> 1;
+                invokeAll(new Play(match, tally, from, mid), new Play(match, tally, mid, to));
+                return;
+            }
+            Game game = BOARDS.get();
+            long xWins = 0;
+            long oWins = 0;
+            long draws = 0;
+            long[] lengths = new long[MAX_MOVES + 1]; // per chunk, not per game
+            for (long i = from; i < to; i++) {
+                play(game, match);
+                lengths[game.getMoveCount()]++;
+                if (game.getWinner().equals("x")) {
+                    xWins++;
+                } else if (game.getWinner().equals("o")) {
+                    oWins++;
+                } else {
+                    draws++;
+                }
+            }
+            tally.add(xWins, oWins, draws, lengths);
+        }
+    }
+
+    // one game, start to finish, on a reset board
+    static void play(Game game, Match match) {
+        game.reset();
+        while (game.getWinner() == null) {
+            boolean xToMove = "x".equals(game.getCurrentPlayer());
+            int mine = xToMove ? game.getXMask() : game.getOMask();
+            int theirs = xToMove ? game.getOMask() : game.getXMask();
+            int cell = game.getMoveCount() < match.openingPlies()
+                    ? randomCell(~(mine | theirs) & Game.FULL_MASK)
+                    : (xToMove ? match.x() : match.o()).chooseMove(mine, theirs);
+            if (!game.makeMove(cell)) {
+                throw new IllegalStateException((xToMove ? match.xName() : match.oName())
+                        + " chose cell " + cell + " on x=" + Integer.toBinaryString(game.getXMask())
+                        + " o=" + Integer.toBinaryString(game.getOMask()));
+            }
+        }
+        boolean draw = "Draw".equals(game.getWinner());
+        if (draw ? !game.isDraw() : !game.isWin()) {
+            throw new IllegalStateException("Engine says " + game.getWinner() + " but isWin=" + game.isWin()
+                    + " isDraw=" + game.isDraw() + " after moves " + game.getMoveHistory());
+        }
+    }
+
+    // the n-th free cell, n uniform
+    private static int randomCell(int empty) {
+        int skip = ThreadLocalRandom.current().nextInt(Integer.bitCount(empty));
+        for (int i = 0; i < skip; i++) {
+            empty &= empty - 1;
+        }
+        return Integer.numberOfTrailingZeros(empty);
+    }
+
+    // shared running totals; leaves add once per chunk, so there is next to no contention
+    private static final class Tally {
+        final LongAdder xWins = new LongAdder();
+        final LongAdder oWins = new LongAdder();
+        final LongAdder draws = new LongAdder();
+        final AtomicLongArray lengths = new AtomicLongArray(MAX_MOVES + 1);
+
+        void add(long x, long o, long d, long[] byLength) {
+            xWins.add(x);
+            oWins.add(o);
+            draws.add(d);
+            for (int i = 0; i < byLength.length; i++) {
+                if (byLength[i] != 0) {
+                    lengths.addAndGet(i, byLength[i]);
+                }
+            }
+        }
+
+        SelfPlayResult snapshot(Match match, long elapsedNanos) {
+            long[] byLength = new long[lengths.length()];
+            for (int i = 0; i < byLength.length; i++) {
+                byLength[i] = lengths.get(i);
+            }
+            return new SelfPlayResult(match.xName(), match.oName(), match.games(),
+                    xWins.sum(), oWins.sum(), draws.sum(), byLength, elapsedNanos);
+        }
+    }
+}
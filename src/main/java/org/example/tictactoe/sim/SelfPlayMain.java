@@ -0,0 +1,70 @@
+package org.example.tictactoe.sim;
+
+import org.example.tictactoe.cpu.CpuStrategy;
+import org.example.tictactoe.cpu.FirstEmptyStrategy;
+import org.example.tictactoe.cpu.PerfectPlayStrategy;
+import org.example.tictactoe.model.CpuDifficulty;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+// Offline self-play runner, no application context (and so no database) involved:
+//   mvn -Pselfplay process-classes -Dselfplay.x=hard -Dselfplay.o=easy -Dselfplay.games=10000000
+// or, from an IDE, run main with --x=hard --o=easy --games=10000000 [--opening=1 --threads=8 --report-ms=1000].
+// Strategies: first (lowest free cell), random, easy, medium, hard (the CPU levels GameService plays).
+// Prints a running total every report-ms; exits non-zero if a game trips the engine checks.
+public final class SelfPlayMain {
+
+    private SelfPlayMain() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        String x = options.getOrDefault("x", "hard");
+        String o = options.getOrDefault("o", "easy");
+        long games = Long.parseLong(options.getOrDefault("games", "1000000"));
+        int opening = Integer.parseInt(options.getOrDefault("opening", "0"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "0"));
+        long reportMs = Long.parseLong(options.getOrDefault("report-ms", "1000"));
+
+        ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : ForkJoinPool.commonPool();
+        System.out.printf("Self-play %s (x) vs %s (o), %,d games, %d random opening plies, %d threads%n",
+                x, o, games, opening, pool.getParallelism());
+        try {
+            SelfPlayResult result = SelfPlay.run(new SelfPlay.Match(x, strategy(x), o, strategy(o), games, opening),
+                    pool, reportMs, progress -> System.out.println(progress.summary()));
+            StringBuilder lengths = new StringBuilder("games by length:");
+            for (int n = 0; n < result.gamesByLength().length; n++) {
+                if (result.gamesByLength()[n] > 0) {
+                    lengths.append(String.format(" %d:%,d", n, result.gamesByLength()[n]));
+                }
+            }
+            System.out.println(lengths);
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } finally {
+            if (pool != ForkJoinPool.commonPool()) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    static CpuStrategy strategy(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "first" -> new FirstEmptyStrategy();
+            case "random" -> new PerfectPlayStrategy(1.0);
+            case "easy", "medium", "hard" -> PerfectPlayStrategy.forDifficulty(CpuDifficulty.valueOf(name.toUpperCase(Locale.ROOT)));
+            default -> throw new IllegalArgumentException("Unknown strategy " + name + " (first, random, easy, medium, hard)");
+        };
+    }
+}
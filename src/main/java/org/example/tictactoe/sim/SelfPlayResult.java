@@ -0,0 +1,47 @@
+package org.example.tictactoe.sim;
+
+// Aggregates of a self-play match so far: outcomes, how many games ended after n moves
+// (gamesByLength[n]) and the wall time spent.
+public record SelfPlayResult(String x, String o, long planned,
+                             long xWins, long oWins, long draws,
+                             long[] gamesByLength, long elapsedNanos) {
+
+    public long played() {
+        return xWins + oWins + draws;
+    }
+
+    public double xWinRate() {
+        return rate(xWins);
+    }
+
+    public double oWinRate() {
+        return rate(oWins);
+    }
+
+    public double drawRate() {
+        return rate(draws);
+    }
+
+    public double meanLength() {
+        long moves = 0;
+        for (int n = 0; n < gamesByLength.length; n++) {
+            moves += n * gamesByLength[n];
+        }
+        return played() == 0 ? 0 : (double) moves / played();
+    }
+
+    public double gamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : played() * 1e9 / elapsedNanos;
+    }
+
+    private double rate(long count) {
+        return played() == 0 ? 0 : (double) count / played();
+    }
+
+    // one line, for progress output
+    public String summary() {
+        return String.format("%s vs %s: %,d/%,d games, x %.2f%% o %.2f%% draw %.2f%%, %.2f moves/game, %,.0f games/s",
+                x, o, played(), planned, xWinRate() * 100, oWinRate() * 100, drawRate() * 100,
+                meanLength(), gamesPerSecond());
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.tictactoe;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// A virtual thread that blocks inside a synchronized block pins its carrier thread (Java 21),
+// so in vthreads mode one slow JDBC call under a monitor stalls unrelated requests. Our code
+// locks with ReentrantLock only; this keeps it that way.
+class NoPinningTest {
+
+    private static final Pattern SYNCHRONIZED = Pattern.compile("\\bsynchronized\\b");
+
+    @Test
+    void mainSourcesDoNotUseSynchronized() throws IOException {
+        List<String> offenders;
+        try (Stream<Path> files = Files.walk(Path.of("src/main/java"))) {
+            offenders = files.filter(p -> p.toString().endsWith(".java"))
+                    .flatMap(NoPinningTest::synchronizedLines)
+                    .toList();
+        }
+        assertEquals(List.of(), offenders, "use a ReentrantLock instead");
+    }
+
+    private static Stream<String> synchronizedLines(Path file) {
+        try {
+            List<String> lines = Files.readAllLines(file);
+            return IntStream.range(0, lines.size())
+                    .filter(i -> !lines.get(i).trim().startsWith("//"))
+                    .filter(i -> SYNCHRONIZED.matcher(lines.get(i)).find())
+                    .mapToObj(i -> file + ":" + (i + 1));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
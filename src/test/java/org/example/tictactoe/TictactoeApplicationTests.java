@@ -1,25 +1,53 @@
 package org.example.tictactoe;
 
+import org.example.tictactoe.repository.AppUserRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.anonymous;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureObservability // tests otherwise get a plain in-memory registry and no /actuator/prometheus
 class TictactoeApplicationTests {
 
+    // the mock user of the game tests; it needs a real row to own games
+    private static final String PLAYER = "web-player";
+
     @Autowired
     private MockMvc mockMvc;
+    @Autowired
+    private AppUserRepository userRepository;
+
+    @BeforeEach
+    void createPlayer() {
+        if (userRepository.findByUsername(PLAYER).isEmpty()) {
+            AppUser user = new AppUser();
+            user.setUsername(PLAYER);
+            user.setPassword("x");
+            user.setRole("USER");
+            userRepository.save(user);
+        }
+    }
 
     @Test
     void contextLoads() {
@@ -58,4 +86,126 @@ class TictactoeApplicationTests {
                         .andExpect(status().is3xxRedirection());
     }
 
+    @Test
+    @WithMockUser(username = PLAYER) // created below, so a game can be created
+    void shouldOpenGameStream() throws Exception {
+        // Create a CPU game, then verify the SSE stream for it is held open asynchronously
+        String location = this.mockMvc.perform(post("/game/new").param("cpu", "true"))
+                .andExpect(status().is3xxRedirection())
+                .andReturn().getResponse().getRedirectedUrl();
+        String gameId = location.substring(location.lastIndexOf('/') + 1);
+
+        this.mockMvc.perform(get("/game/stream/" + gameId))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    @WithMockUser(username = "testUser")
+    void shouldReturnNotModifiedForUnchangedLeaderboard() throws Exception {
+        // First poll hands out an ETag, polling again with it gets a 304
+        String etag = this.mockMvc.perform(get("/game/leaderboard-data"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        this.mockMvc.perform(get("/game/leaderboard-data").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // another page has its own tag, and pages read from the DB carry none
+        this.mockMvc.perform(get("/game/leaderboard-data").param("page", "1").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(get("/game/leaderboard-data").param("page", "50"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    @WithMockUser(username = PLAYER)
+    void shouldRenderGomokuBoard() throws Exception {
+        // A 15x15 game renders one cell per square
+        String location = this.mockMvc.perform(post("/game/new").param("cpu", "true").param("variant", "GOMOKU"))
+                .andExpect(status().is3xxRedirection())
+                .andReturn().getResponse().getRedirectedUrl();
+
+        this.mockMvc.perform(get(location))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("id=\"cell224\"")));
+    }
+
+    @Test
+    @WithMockUser(username = PLAYER)
+    void shouldExposeGameMetricsToPrometheus() throws Exception {
+        // Play one move, then the scrape endpoint (a ROLE_METRICS account only) lists the game meters
+        String location = this.mockMvc.perform(post("/game/new").param("cpu", "true"))
+                .andReturn().getResponse().getRedirectedUrl();
+        String gameId = location.substring(location.lastIndexOf('/') + 1);
+        this.mockMvc.perform(post("/game/move/" + gameId + "/4"))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(get("/actuator/prometheus").with(anonymous()))
+                .andExpect(status().isUnauthorized());
+        this.mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+        this.mockMvc.perform(get("/actuator/prometheus").with(user("scraper").roles("METRICS")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("tictactoe_game_move_seconds_count{player=\"human\"}")))
+                .andExpect(content().string(containsString("tictactoe_games{status=\"IN_PROGRESS\"}")))
+                .andExpect(content().string(containsString("tictactoe_game_move_rejected_total")));
+    }
+
+    @Test
+    @WithMockUser(username = PLAYER)
+    void shouldDownloadGameHistory() throws Exception {
+        // The export is a file download, one JSON object per game and line
+        this.mockMvc.perform(post("/game/new").param("cpu", "true"));
+
+        this.mockMvc.perform(get("/game/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("application/x-ndjson")))
+                .andExpect(header().string("Content-Disposition", containsString("games.ndjson")))
+                .andExpect(content().string(containsString("\"playerX\":\"" + PLAYER + "\"")));
+    }
+
+    @Test
+    @WithMockUser(username = PLAYER)
+    void shouldMoveThroughAsyncApi() throws Exception {
+        // The API move completes off the request thread and answers with the typed state record
+        String location = this.mockMvc.perform(post("/game/new").param("cpu", "true"))
+                .andReturn().getResponse().getRedirectedUrl();
+        String gameId = location.substring(location.lastIndexOf('/') + 1);
+
+        MvcResult pending = this.mockMvc.perform(post("/api/game/" + gameId + "/move/4"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.gameId").value(Long.parseLong(gameId)))
+                .andExpect(jsonPath("$.board[4]").value("x"))
+                .andExpect(jsonPath("$.currentPlayer").value("x")); // the CPU already replied
+
+        // an unknown game is a 400 with a message
+        this.mockMvc.perform(get("/api/game/999999"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Game not found"));
+    }
+
+    @Test
+    @WithMockUser(username = PLAYER)
+    void shouldHoldLongPollUntilGameChanges() throws Exception {
+        // A long-poll at the current version parks; the next move answers it with a newer version
+        String location = this.mockMvc.perform(post("/game/new").param("cpu", "true"))
+                .andReturn().getResponse().getRedirectedUrl();
+        String gameId = location.substring(location.lastIndexOf('/') + 1);
+
+        MvcResult parked = this.mockMvc.perform(get("/game/state/" + gameId).param("since", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(post("/game/move/" + gameId + "/4"))
+                .andExpect(jsonPath("$.version").value(1));
+
+        this.mockMvc.perform(asyncDispatch(parked))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1))
+                .andExpect(jsonPath("$.board[4]").value("x"));
+    }
 }
@@ -0,0 +1,68 @@
+package org.example.tictactoe.bench;
+
+import org.example.tictactoe.cpu.AlphaBetaSearch;
+import org.example.tictactoe.cpu.CpuStrategy;
+import org.example.tictactoe.cpu.PerfectPlayStrategy;
+import org.example.tictactoe.model.CpuDifficulty;
+import org.example.tictactoe.model.Game;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// CPU reply latency: one table lookup per move on 3x3, expected in the low nanoseconds, and a
+// fixed-depth alpha-beta search on an early Gomoku position (no time budget involved).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CpuMoveBenchmark {
+
+    // a few mid-game positions as (cpu, human) masks
+    private static final int[][] POSITIONS = {
+            {0b000_000_000, 0b000_010_000},
+            {0b000_000_001, 0b000_010_100},
+            {0b000_100_001, 0b001_010_010},
+            {0b010_000_001, 0b100_010_010},
+    };
+
+    private final CpuStrategy hard = PerfectPlayStrategy.forDifficulty(CpuDifficulty.HARD);
+    private int next;
+
+    private final AlphaBetaSearch search = new AlphaBetaSearch(1 << 16);
+    private Game gomoku;
+
+    @Setup
+    public void setUp() {
+        gomoku = new Game();
+        gomoku.initialize(15, 5);
+        for (int move : new int[]{112, 113, 97, 127, 126}) {
+            gomoku.makeMove(move);
+        }
+    }
+
+    @Benchmark
+    public void perfectMove(Blackhole bh) {
+        int[] position = POSITIONS[next++ & 3];
+        bh.consume(hard.chooseMove(position[0], position[1]));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int alphaBetaDepth4() {
+        return search.bestMove(gomoku, TimeUnit.MINUTES.toNanos(1), 4);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CpuMoveBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
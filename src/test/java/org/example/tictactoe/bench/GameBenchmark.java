@@ -0,0 +1,76 @@
+package org.example.tictactoe.bench;
+
+import org.example.tictactoe.model.Game;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// Pure engine operations on a mid-game position, classic 3x3 and 15x15 Gomoku.
+// Run with the gc profiler (mvn -Pbench, or main below) to see bytes allocated per op:
+// everything but getBoard should report ~0 B/op.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    @Param({"3", "15"})
+    private int size;
+
+    private Game game;
+    private int free;
+
+    @Setup
+    public void setUp() {
+        game = new Game();
+        game.initialize(size, size == 3 ? 3 : 5);
+        // scattered stones with no line yet; x to move afterwards
+        int[] moves = size == 3 ? new int[]{4, 0, 8, 2} : new int[]{112, 113, 97, 127, 126, 98, 140, 84};
+        for (int move : moves) {
+            game.makeMove(move);
+        }
+        free = game.firstEmptyCell();
+    }
+
+    // one move and its take-back, so the position is the same for every invocation
+    @Benchmark
+    public boolean makeAndUndoMove() {
+        boolean moved = game.makeMove(free);
+        game.undoMove();
+        return moved;
+    }
+
+    @Benchmark
+    public boolean isWin() {
+        return game.isWin();
+    }
+
+    @Benchmark
+    public boolean isDraw() {
+        return game.isDraw();
+    }
+
+    @Benchmark
+    public void getBoard(Blackhole bh) {
+        bh.consume(game.getBoard());
+    }
+
+    @Benchmark
+    public Game snapshot() {
+        return game.snapshot();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GameBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.tictactoe.bench;
+
+import org.example.tictactoe.TictactoeApplication;
+import org.example.tictactoe.model.Game;
+import org.example.tictactoe.service.GameEngine;
+import org.example.tictactoe.service.GameService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// End-to-end GameService calls against the full application context on in-memory H2: the
+// in-memory engine, the move log insert, CPU reply and event publishing. No web layer.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private GameService gameService;
+    private Long gameId;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(TictactoeApplication.class)
+                .web(WebApplicationType.NONE)
+                // command-line args, so they win over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--logging.level.root=WARN");
+        gameService = context.getBean(GameService.class);
+        gameId = gameService.createNewGameForUser("haze", true).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.getBean(GameEngine.class).flush();
+        context.close();
+    }
+
+    // human move + CPU reply, then the double take-back: four log entries per op
+    @Benchmark
+    public Game makeMoveAndUndo() {
+        gameService.makeMove(gameId, 4, "haze");
+        return gameService.undoMove(gameId, "haze");
+    }
+
+    @Benchmark
+    public Game getGame() {
+        return gameService.getGame(gameId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GameServiceBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,281 @@
+package org.example.tictactoe.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// End-to-end load generator: N virtual users register, log in and play games over real HTTP
+// against the app on in-memory H2, polling /game/state between moves like game.html does
+// (it polls every second; load.poll-ms defaults to a busier 250 ms).
+// Half of them play the CPU, the other half play each other in fixed pairs (create + join).
+// Prints per-endpoint throughput, p50/p99/p999 latency, error rate and JDBC statements per move.
+//
+// Not part of the normal test run; run with
+//   mvn -Pload test [-Dload.users=500 -Dload.seconds=60 -Dload.poll-ms=250]
+//
+// Thread-per-request vs virtual threads (Java 21 build): run the same load twice and compare the
+// latency columns and error rate as users grow past Tomcat's worker pool, e.g.
+//   mvn -Pload,java21 test -Dload.users=2000 -Dserver.tomcat.threads.max=50
+//   mvn -Pload,java21 test -Dload.users=2000 -Dserver.tomcat.threads.max=50 -Dspring.profiles.active=vthreads
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.root=WARN"
+})
+class HttpLoadHarness {
+
+    private static final int USERS = Integer.getInteger("load.users", 100);
+    private static final int SECONDS = Integer.getInteger("load.seconds", 20);
+    private static final long POLL_MS = Long.getLong("load.poll-ms", 250);
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final AtomicLong moves = new AtomicLong();
+    private final AtomicLong games = new AtomicLong();
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Test
+    void run() throws Exception {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        List<VirtualUser> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new VirtualUser("load-" + run + "-" + i));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(USERS);
+        for (VirtualUser user : users) {
+            pool.submit(() -> { user.signUp(); return null; });
+        }
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.MINUTES);
+        endpoints.clear(); // sign-up is setup, report the steady state only
+
+        stats.clear();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        long start = System.nanoTime();
+        pool = Executors.newFixedThreadPool(USERS);
+        int cpuPlayers = USERS / 2;
+        for (int i = 0; i < cpuPlayers; i++) {
+            VirtualUser user = users.get(i);
+            pool.submit(() -> loop(deadline, () -> user.playCpuGame(deadline)));
+        }
+        for (int i = cpuPlayers; i + 1 < USERS; i += 2) {
+            VirtualUser host = users.get(i);
+            VirtualUser guest = users.get(i + 1);
+            BlockingQueue<Long> handoff = new ArrayBlockingQueue<>(1);
+            pool.submit(() -> loop(deadline, () -> host.hostPvpGame(handoff, deadline)));
+            pool.submit(() -> loop(deadline, () -> guest.joinPvpGame(handoff, deadline)));
+        }
+        pool.shutdown();
+        pool.awaitTermination(SECONDS + 120L, TimeUnit.SECONDS);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long requests = 0;
+        long errors = 0;
+        System.out.printf("%n%d users on %s threads, %.1f s, %d games, %d moves, %.2f JDBC statements per move%n",
+                USERS, virtualThreads ? "virtual" : "platform", elapsed, games.get(), moves.get(),
+                moves.get() == 0 ? 0.0 : (double) stats.getPrepareStatementCount() / moves.get());
+        System.out.printf("%-8s %9s %10s %9s %9s %9s %8s%n", "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "errors");
+        for (Map.Entry<String, Endpoint> e : new TreeMap<>(endpoints).entrySet()) {
+            Endpoint endpoint = e.getValue();
+            long[] sorted = endpoint.sorted();
+            requests += sorted.length;
+            errors += endpoint.errors.get();
+            System.out.printf("%-8s %9d %10.1f %9.2f %9.2f %9.2f %8d%n", e.getKey(), sorted.length, sorted.length / elapsed,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999), endpoint.errors.get());
+        }
+        double errorRate = requests == 0 ? 1.0 : (double) errors / requests;
+        System.out.printf("total    %9d %10.1f, error rate %.3f%%%n", requests, requests / elapsed, errorRate * 100);
+
+        assertTrue(games.get() > 0, "no game finished");
+        assertTrue(errorRate <= MAX_ERROR_RATE, "error rate " + errorRate);
+    }
+
+    private interface Round {
+        void play() throws Exception;
+    }
+
+    private void loop(long deadline, Round round) {
+        while (System.nanoTime() < deadline) {
+            try {
+                round.play();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // already counted as an error by the endpoint; start a fresh game
+            }
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    // latencies of one endpoint, in nanoseconds
+    private static final class Endpoint {
+        private long[] samples = new long[1024];
+        private int size;
+        final AtomicLong errors = new AtomicLong();
+
+        synchronized void record(long nanos) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    private final class VirtualUser {
+        final String username;
+        final HttpClient http = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        VirtualUser(String username) {
+            this.username = username;
+        }
+
+        void signUp() throws Exception {
+            String form = "username=" + username + "&password=pass123";
+            send("register", post("/register", form));
+            HttpResponse<String> login = send("login", post("/login", form));
+            if (login.headers().firstValue("Location").orElse("").contains("error")) {
+                throw new IllegalStateException("login failed for " + username);
+            }
+        }
+
+        void playCpuGame(long deadline) throws Exception {
+            long id = gameIdFrom(send("new", post("/game/new?cpu=true", "")));
+            play(id, "x", deadline);
+        }
+
+        void hostPvpGame(BlockingQueue<Long> handoff, long deadline) throws Exception {
+            long id = gameIdFrom(send("new", post("/game/new?cpu=false", "")));
+            handoff.put(id);
+            play(id, "x", deadline);
+        }
+
+        void joinPvpGame(BlockingQueue<Long> handoff, long deadline) throws Exception {
+            Long id = handoff.poll(Math.max(1, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (id == null) {
+                return;
+            }
+            send("join", post("/game/join/" + id, ""));
+            play(id, "o", deadline);
+        }
+
+        // poll the state like game.html, move on our turn, until someone wins or time is up
+        private void play(long id, String me, long deadline) throws Exception {
+            while (System.nanoTime() < deadline) {
+                JsonNode state = json.readTree(send("state", get("/game/state/" + id)).body());
+                if (!state.get("winner").isNull()) {
+                    games.incrementAndGet();
+                    return;
+                }
+                if (me.equals(state.get("currentPlayer").asText()) && "IN_PROGRESS".equals(state.get("status").asText())) {
+                    send("move", post("/game/move/" + id + "/" + randomFreeCell(state.get("board")), ""));
+                    moves.incrementAndGet();
+                }
+                Thread.sleep(POLL_MS);
+            }
+        }
+
+        private int randomFreeCell(JsonNode board) {
+            List<Integer> free = new ArrayList<>();
+            for (int i = 0; i < board.size(); i++) {
+                if ("-".equals(board.get(i).asText())) {
+                    free.add(i);
+                }
+            }
+            return free.get(ThreadLocalRandom.current().nextInt(free.size()));
+        }
+
+        private long gameIdFrom(HttpResponse<String> redirect) {
+            String location = redirect.headers().firstValue("Location").orElseThrow();
+            return Long.parseLong(location.substring(location.lastIndexOf('/') + 1));
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        }
+
+        private HttpRequest post(String path, String form) {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form))
+                    .build();
+        }
+
+        // 2xx and 3xx are fine (form posts redirect); anything else, or an IO failure, is an error
+        private HttpResponse<String> send(String name, HttpRequest request) throws Exception {
+            Endpoint endpoint = endpoints.computeIfAbsent(name, n -> new Endpoint());
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                endpoint.record(System.nanoTime() - start);
+                if (response.statusCode() >= 400) {
+                    endpoint.errors.incrementAndGet();
+                    throw new IllegalStateException(name + " returned " + response.statusCode());
+                }
+                return response;
+            } catch (java.io.IOException e) {
+                endpoint.record(System.nanoTime() - start);
+                endpoint.errors.incrementAndGet();
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.tictactoe.bench;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.tictactoe.service.GameEngine;
+import org.example.tictactoe.service.GameService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// JDBC statements per game action on H2, counted by Hibernate statistics. Not part of the normal
+// test run (no *Test suffix); run with
+//   mvn test -Dtest=StatementCountBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+// A batched insert/update counts as one prepared statement, so this tracks DB round trips.
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "tictactoe.engine.flush-interval-ms=3600000"
+})
+class StatementCountBenchmark {
+
+    private static final int GAMES = 50;
+
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private GameEngine engine;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void statementsPerMove() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<Long> ids = new ArrayList<>();
+        long create = count(stats, () -> {
+            for (int i = 0; i < GAMES; i++) {
+                ids.add(gameService.createNewGameForUser("haze", true).getId());
+            }
+            return null;
+        });
+        // one human move + CPU reply per game, then one snapshot flush of all of them
+        long move = count(stats, () -> {
+            ids.forEach(id -> gameService.makeMove(id, 4, "haze"));
+            return null;
+        });
+        long flush = count(stats, () -> {
+            engine.flush();
+            return null;
+        });
+        // play each game out; the last move writes the finished row and stats through
+        long finish = count(stats, () -> {
+            for (Long id : ids) {
+                var game = gameService.getGame(id);
+                while (game.getWinner() == null) {
+                    game = gameService.makeMove(id, game.firstEmptyCell(), "haze");
+                }
+            }
+            return null;
+        });
+
+        System.out.printf("statements per game: create %.2f, move %.2f, snapshot flush %.2f, play-out %.2f%n",
+                (double) create / GAMES, (double) move / GAMES, (double) flush / GAMES, (double) finish / GAMES);
+    }
+
+    private static long count(Statistics stats, Supplier<?> work) {
+        stats.clear();
+        work.get();
+        return stats.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.tictactoe.clock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void firesInDeadlineOrderAndNeverEarly() throws Exception {
+        // 8 buckets of 10 ms: the later timeouts need several turns of the wheel
+        try (TimingWheel wheel = new TimingWheel("test-wheel", 10, 8, Runnable::run)) {
+            List<Long> delays = List.of(250L, 30L, 120L, 0L, 75L);
+            List<Long> fired = new CopyOnWriteArrayList<>();
+            ConcurrentHashMap<Long, Long> lateness = new ConcurrentHashMap<>();
+            CountDownLatch done = new CountDownLatch(delays.size());
+            long start = System.nanoTime();
+            for (long delay : delays) {
+                wheel.schedule(() -> {
+                    lateness.put(delay, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) - delay);
+                    fired.add(delay);
+                    done.countDown();
+                }, delay);
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(0L, 30L, 75L, 120L, 250L), fired);
+            lateness.forEach((delay, late) -> assertTrue(late >= 0, delay + " ms timeout fired " + -late + " ms early"));
+            assertEquals(0, wheel.pending());
+        }
+    }
+
+    @Test
+    void cancelledTimeoutsNeverRun() throws Exception {
+        try (TimingWheel wheel = new TimingWheel("test-wheel", 10, 8, Runnable::run)) {
+            AtomicBoolean ran = new AtomicBoolean();
+            CountDownLatch after = new CountDownLatch(1);
+            TimingWheel.Timeout timeout = wheel.schedule(() -> ran.set(true), 50);
+            wheel.schedule(after::countDown, 150);
+            assertEquals(2, wheel.pending());
+
+            assertTrue(timeout.cancel());
+            assertFalse(timeout.cancel());
+            assertEquals(1, wheel.pending());
+
+            assertTrue(after.await(5, TimeUnit.SECONDS));
+            assertFalse(ran.get());
+            assertTrue(timeout.isCancelled());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.tictactoe.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.tictactoe.TictactoeApplication;
+import org.example.tictactoe.service.ClusterService;
+import org.example.tictactoe.service.GameEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.CookieManager;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Several app instances on their own ports over one shared (in-JVM) H2 database, talking HTTP.
+class ClusterTest {
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private final ObjectMapper json = new ObjectMapper();
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void gamesFollowTheirOwnerAsNodesLeaveAndJoin() throws Exception {
+        ConfigurableApplicationContext a = start();
+        ConfigurableApplicationContext b = start();
+        awaitMembers(a, 2);
+        awaitMembers(b, 2);
+
+        // one player, only ever talking to node A
+        String nodeA = url(a);
+        HttpClient player = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+        send(player, post(nodeA + "/register", "username=cluster-x&password=pass123"));
+        send(player, post(nodeA + "/login", "username=cluster-x&password=pass123"));
+
+        // a CPU game that B owns
+        long gameId;
+        do {
+            String location = send(player, post(nodeA + "/game/new?cpu=true", "")).headers()
+                    .firstValue("Location").orElseThrow();
+            gameId = Long.parseLong(location.substring(location.lastIndexOf('/') + 1));
+        } while (!url(b).equals(cluster(a).ownerOf(gameId)));
+
+        // played through A, applied by B: only the owner holds it in memory
+        JsonNode afterMove = json.readTree(send(player, post(nodeA + "/game/move/" + gameId + "/0", "")).body());
+        assertEquals("x", afterMove.get("board").get(0).asText());
+        assertTrue(engine(b).holds(gameId));
+        assertFalse(engine(a).holds(gameId));
+
+        // B leaves: A takes over from the DB + move log, nothing lost
+        b.close();
+        nodes.remove(b);
+        awaitMembers(a, 1);
+        JsonNode state = json.readTree(send(player, get(nodeA + "/game/state/" + gameId)).body());
+        assertEquals(afterMove.get("board"), state.get("board"));
+        int free = freeCell(state);
+        send(player, post(nodeA + "/game/move/" + gameId + "/" + free, ""));
+        assertTrue(engine(a).holds(gameId));
+
+        // C joins: whoever the ring now names is the only one holding the game
+        ConfigurableApplicationContext c = start();
+        awaitMembers(a, 2);
+        awaitMembers(c, 2);
+        String owner = cluster(a).ownerOf(gameId);
+        assertEquals(owner.equals(url(a)), engine(a).holds(gameId));
+        state = json.readTree(send(player, get(nodeA + "/game/state/" + gameId)).body());
+        assertEquals("x", state.get("board").get(free).asText());
+        assertEquals(owner.equals(url(c)), engine(c).holds(gameId));
+    }
+
+    private ConfigurableApplicationContext start() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TictactoeApplication.class)
+                // command-line args, so they win over application.properties
+                .run("--server.port=" + port,
+                        "--spring.datasource.url=jdbc:h2:mem:cluster;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--tictactoe.cluster.enabled=true",
+                        "--tictactoe.cluster.self=http://localhost:" + port,
+                        "--tictactoe.cluster.secret=cluster-test",
+                        "--tictactoe.cluster.heartbeat-ms=100",
+                        "--tictactoe.cluster.node-timeout-ms=1000",
+                        "--logging.level.root=WARN");
+        nodes.add(context);
+        return context;
+    }
+
+    private static void awaitMembers(ConfigurableApplicationContext node, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (cluster(node).ring().nodes().size() != count) {
+            assertTrue(System.currentTimeMillis() < deadline, "ring never reached " + count + " nodes");
+            Thread.sleep(50);
+        }
+    }
+
+    private static ClusterService cluster(ConfigurableApplicationContext node) {
+        return node.getBean(ClusterService.class);
+    }
+
+    private static GameEngine engine(ConfigurableApplicationContext node) {
+        return node.getBean(GameEngine.class);
+    }
+
+    private static String url(ConfigurableApplicationContext node) {
+        return cluster(node).self();
+    }
+
+    private static int freeCell(JsonNode state) {
+        JsonNode board = state.get("board");
+        for (int i = 0; i < board.size(); i++) {
+            if ("-".equals(board.get(i).asText())) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("board is full");
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+    }
+
+    private static HttpRequest post(String uri, String form) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private static HttpResponse<String> send(HttpClient client, HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertTrue(response.statusCode() < 400, request.uri() + " returned " + response.statusCode());
+        return response;
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.tictactoe.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashRingTest {
+
+    private static final List<String> THREE = List.of("http://a:8080", "http://b:8080", "http://c:8080");
+
+    @Test
+    void spreadsSequentialIdsEvenly() {
+        HashRing ring = new HashRing(THREE, 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (long id = 1; id <= 30_000; id++) {
+            counts.merge(ring.ownerOf(id), 1, Integer::sum);
+        }
+        for (String node : THREE) {
+            int share = counts.get(node);
+            assertTrue(share > 8_000 && share < 12_000, node + " owns " + share);
+        }
+    }
+
+    @Test
+    void joiningNodeOnlyTakesGamesFromOthers() {
+        HashRing before = new HashRing(THREE.subList(0, 2), 128);
+        HashRing after = new HashRing(THREE, 128);
+        int moved = 0;
+        for (long id = 1; id <= 30_000; id++) {
+            String owner = after.ownerOf(id);
+            if (!owner.equals(before.ownerOf(id))) {
+                assertEquals("http://c:8080", owner); // nothing shuffles between the old nodes
+                moved++;
+            }
+        }
+        assertTrue(moved > 8_000 && moved < 12_000, "moved " + moved);
+    }
+
+    @Test
+    void emptyRingHasNoOwner() {
+        assertNull(new HashRing(List.of(), 128).ownerOf(42));
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.tictactoe.cpu;
+
+import org.example.tictactoe.model.Game;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlphaBetaSearchTest {
+
+    private final AlphaBetaSearch search = new AlphaBetaSearch(1 << 16);
+    private final long budget = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private Game gomoku(int... moves) {
+        Game game = new Game();
+        game.initialize(15, 5);
+        for (int move : moves) {
+            assertTrue(game.makeMove(move));
+        }
+        return game;
+    }
+
+    @Test
+    void shouldCompleteFiveInARow() {
+        // X: row 7, columns 3..6; O scattered; X to move wins at column 2 or 7
+        Game game = gomoku(108, 0, 109, 14, 110, 210, 111, 224);
+        int move = search.bestMove(game, budget, 8);
+        assertTrue(move == 107 || move == 112, "move " + move);
+    }
+
+    @Test
+    void shouldBlockOpponentsFour() {
+        // X: row 7, columns 3..6 with column 2 already blocked by O; O to move must take column 7
+        Game game = gomoku(108, 107, 109, 0, 110, 14, 111);
+        assertEquals(112, search.bestMove(game, budget, 8));
+    }
+
+    @Test
+    void shouldStayWithinBudget() {
+        Game game = gomoku(112, 113, 97);
+        long start = System.nanoTime();
+        int move = search.bestMove(game, TimeUnit.MILLISECONDS.toNanos(50), 40);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(move >= 0 && !game.hasX(move) && !game.hasO(move));
+        assertTrue(elapsedMs < 250, "took " + elapsedMs + " ms");
+        assertTrue(search.completedDepth() >= 1);
+    }
+}
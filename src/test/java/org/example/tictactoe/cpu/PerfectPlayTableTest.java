@@ -0,0 +1,31 @@
+package org.example.tictactoe.cpu;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfectPlayTableTest {
+
+    @Test
+    void shouldCoverEveryReachablePositionOnce() {
+        assertTrue(PerfectPlayTable.positions() < 6000, "positions: " + PerfectPlayTable.positions());
+    }
+
+    @Test
+    void shouldSolveEmptyBoardAsDraw() {
+        assertEquals(0, PerfectPlayTable.score(0, 0));
+    }
+
+    @Test
+    void shouldTakeWinBeforeBlocking() {
+        // to move: 0,1 (wins at 2); opponent: 3,4 (threatens 5)
+        assertEquals(2, PerfectPlayTable.bestMove(0b000_000_011, 0b000_011_000));
+        assertEquals(9, PerfectPlayTable.score(0b000_000_011, 0b000_011_000));
+    }
+
+    @Test
+    void shouldBlockOpponentsLine() {
+        // to move: 8; opponent: 0,1 threatens 2
+        assertEquals(2, PerfectPlayTable.bestMove(0b100_000_000, 0b000_000_011));
+    }
+}
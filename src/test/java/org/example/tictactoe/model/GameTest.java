@@ -0,0 +1,85 @@
+package org.example.tictactoe.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameTest {
+
+    private Game play(int... moves) {
+        Game game = new Game();
+        game.initialize();
+        for (int move : moves) {
+            assertTrue(game.makeMove(move), "move " + move + " rejected");
+        }
+        return game;
+    }
+
+    @Test
+    void shouldDetectRowWin() {
+        Game game = play(0, 3, 1, 4, 2);
+        assertTrue(game.isWin());
+        assertEquals("x", game.getWinner());
+        assertEquals("FINISHED", game.getStatus());
+    }
+
+    @Test
+    void shouldDetectDraw() {
+        Game game = play(0, 1, 2, 4, 3, 5, 7, 6, 8);
+        assertTrue(game.isDraw());
+        assertEquals("Draw", game.getWinner());
+    }
+
+    @Test
+    void shouldRejectOccupiedCell() {
+        Game game = play(4);
+        assertFalse(game.makeMove(4));
+        assertEquals("o", game.getCurrentPlayer());
+    }
+
+    @Test
+    void shouldUndoFromPackedHistory() {
+        Game game = play(0, 3, 1, 4, 2);
+        assertEquals(List.of(0, 3, 1, 4, 2), game.getMoveHistory());
+
+        game.undoMove();
+        assertNull(game.getWinner());
+        assertEquals("-", game.getCharAt(2));
+        assertEquals(List.of("x", "x", "-", "o", "o", "-", "-", "-", "-"), game.getBoard());
+    }
+
+    @Test
+    void shouldDetectFiveInARowOnGomokuBoard() {
+        Game game = new Game();
+        game.initialize(15, 5);
+        // X builds the diagonal (2,2)..(6,6), O plays along the top row
+        int[] x = {32, 48, 64, 80, 96};
+        for (int i = 0; i < x.length; i++) {
+            assertNull(game.getWinner());
+            assertTrue(game.makeMove(x[i]));
+            if (i < x.length - 1) {
+                assertTrue(game.makeMove(i));
+            }
+        }
+        assertEquals("x", game.getWinner());
+        assertTrue(game.isWin());
+    }
+
+    @Test
+    void shouldNeedFourOnFourByFour() {
+        Game game = new Game();
+        game.initialize(4, 4);
+        game.makeMove(0);
+        game.makeMove(4);
+        game.makeMove(1);
+        game.makeMove(5);
+        game.makeMove(2); // three in a row is not enough here
+        assertNull(game.getWinner());
+        game.makeMove(6);
+        game.makeMove(3);
+        assertEquals("x", game.getWinner());
+        assertEquals(16, game.getBoard().size());
+    }
+}
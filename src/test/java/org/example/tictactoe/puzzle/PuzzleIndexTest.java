@@ -0,0 +1,64 @@
+package org.example.tictactoe.puzzle;
+
+import org.example.tictactoe.model.Game;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleIndexTest {
+
+    private static final PuzzleIndex INDEX = PuzzleIndex.build();
+
+    @Test
+    void shouldHavePuzzlesAtEveryDifficulty() {
+        for (PuzzleDifficulty difficulty : PuzzleDifficulty.values()) {
+            assertTrue(INDEX.count(difficulty) > 0, difficulty.name());
+            assertEquals(difficulty, INDEX.get(INDEX.idOf(difficulty, 0)).difficulty());
+        }
+    }
+
+    @Test
+    void shouldSolveWinInOneByCompletingALine() {
+        for (int i = 0; i < INDEX.count(PuzzleDifficulty.EASY); i++) {
+            Puzzle puzzle = INDEX.get(INDEX.idOf(PuzzleDifficulty.EASY, i));
+            assertEquals(Puzzle.Kind.WIN, puzzle.kind());
+            assertEquals(1, puzzle.n());
+            int mine = puzzle.toMove().equals("x") ? puzzle.xMask() : puzzle.oMask();
+            for (int s = puzzle.solutions(); s != 0; s &= s - 1) {
+                assertTrue(Game.isWinningMask(mine | Integer.lowestOneBit(s)), "puzzle " + puzzle.id());
+            }
+        }
+    }
+
+    @Test
+    void shouldGiveSavePuzzlesExactlyOneAnswer() {
+        for (int id = 0; id < INDEX.size(); id++) {
+            Puzzle puzzle = INDEX.get(id);
+            if (puzzle.kind() == Puzzle.Kind.SAVE) {
+                assertEquals(1, Integer.bitCount(puzzle.solutions()), "puzzle " + id);
+                assertEquals(0, (puzzle.xMask() | puzzle.oMask()) & puzzle.solutions());
+                assertTrue(INDEX.isSolution(id, Integer.numberOfTrailingZeros(puzzle.solutions())));
+            }
+        }
+    }
+
+    @Test
+    void shouldMapTheSameIndexFromFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("puzzles.bin");
+        PuzzleIndex written = PuzzleIndex.open(file);   // built and written
+        PuzzleIndex mapped = PuzzleIndex.open(file);    // mapped as is
+        assertEquals(Integer.BYTES * (4 + INDEX.size()), Files.size(file));
+        assertEquals(INDEX.size(), mapped.size());
+        for (int id = 0; id < INDEX.size(); id++) {
+            assertEquals(INDEX.get(id), written.get(id));
+            assertEquals(INDEX.get(id), mapped.get(id));
+        }
+
+        Files.write(file, new byte[]{1, 2, 3, 4});      // garbage gets rebuilt
+        assertEquals(INDEX.size(), PuzzleIndex.open(file).size());
+    }
+}
@@ -0,0 +1,391 @@
+package org.example.tictactoe.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.tictactoe.AppUser;
+import org.example.tictactoe.model.BoardVariant;
+import org.example.tictactoe.model.Game;
+import org.example.tictactoe.repository.AppUserRepository;
+import org.example.tictactoe.repository.GameArchiveRepository;
+import org.example.tictactoe.repository.GameRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Own in-memory database: the reaper tests expire and archive every stale row they can see.
+// Flush only when the test asks for it; PvP moves time out fast; exports run in tiny batches.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:game-service;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tictactoe.engine.flush-interval-ms=3600000",
+        "tictactoe.clock.move-limit-ms=400",
+        "tictactoe.clock.tick-ms=10",
+        "tictactoe.export.batch-size=2"
+})
+class GameServiceTest {
+
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private GameEngine engine;
+    @Autowired
+    private GameRepository gameRepository;
+    @Autowired
+    private AppUserRepository userRepository;
+    @Autowired
+    private MoveLog moveLog;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private GameReaper reaper;
+    @Autowired
+    private GameArchiveRepository archiveRepository;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private GameExportService exporter;
+    @Autowired
+    private LegacyGameTables legacyTables;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void shouldFlushMovesAndWriteThroughFinishedGame() {
+        String player = newUser("flusher").getUsername();
+        int playedBefore = userRepository.findByUsername(player).orElseThrow().getGamesPlayed();
+        Long id = gameService.createNewGameForUser(player, true).getId();
+
+        // X plays the centre, CPU answers; nothing hits the game row until the flush
+        gameService.makeMove(id, 4, player);
+        engine.flush();
+        assertEquals(2, gameRepository.findById(id).orElseThrow().getMoveCount());
+
+        // keep taking the first free cell until the game ends
+        Game game = gameService.getGame(id);
+        while (game.getWinner() == null) {
+            game = gameService.makeMove(id, Integer.numberOfTrailingZeros(game.getEmptyMask()), player);
+        }
+        assertNotEquals("x", game.getWinner(), "the default CPU plays perfectly");
+
+        Game stored = gameRepository.findById(id).orElseThrow();
+        assertEquals("FINISHED", stored.getStatus());
+        assertEquals(playedBefore + 1, userRepository.findByUsername(player).orElseThrow().getGamesPlayed());
+    }
+
+    @Test
+    void shouldExportEveryGameAcrossBatches() throws Exception {
+        AppUser player = newUser("exporter");
+        Long first = gameService.createNewGameForUser(player.getUsername(), true).getId();
+        Long second = gameService.createNewGameForUser(player.getUsername(), true).getId();
+        Long third = gameService.createNewGameForUser(player.getUsername(), false).getId();
+        gameService.makeMove(first, 4, player.getUsername());
+        engine.flush();
+
+        // three games in batches of two: one line each, newest first, moves included
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(player.getUsername(), GameExportService.Format.NDJSON, out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":" + third + ","), lines[0]);
+        assertTrue(lines[1].startsWith("{\"id\":" + second + ","), lines[1]);
+        assertTrue(lines[2].startsWith("{\"id\":" + first + ","), lines[2]);
+        assertTrue(lines[2].endsWith("\"moves\":[4," + gameService.getGame(first).getMoveAt(1) + "]}"), lines[2]);
+
+        out.reset();
+        exporter.export(player.getUsername(), GameExportService.Format.CSV, out);
+        String[] rows = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, rows.length);
+        assertTrue(rows[0].startsWith("id,status,"));
+        assertTrue(rows[1].startsWith(third + ",WAITING,," + player.getUsername() + ",,"), rows[1]);
+    }
+
+    @Test
+    void shouldRetryFailedWriteThroughWithItsStats() {
+        String player = newUser("finisher").getUsername();
+        Long id = gameService.createNewGameForUser(player, true).getId();
+        gameService.makeMove(id, 4, player);
+
+        // the stats update fails once: the FINISHED row rolls back with it
+        AtomicInteger recorded = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        engine.update(id, game -> game.setStatus("FINISHED"), game -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new RuntimeException("stats unavailable");
+            }
+            recorded.incrementAndGet();
+        });
+        assertEquals("IN_PROGRESS", gameRepository.findById(id).orElseThrow().getStatus());
+        assertTrue(engine.holds(id), "kept until the write lands");
+
+        // the next flush writes the row and the stats together
+        engine.flush();
+        assertEquals("FINISHED", gameRepository.findById(id).orElseThrow().getStatus());
+        assertEquals(1, recorded.get());
+        assertFalse(engine.holds(id));
+    }
+
+    @Test
+    void shouldAnswerACpuTurnWhoseReplyWasLost() throws Exception {
+        String player = newUser("gomoku").getUsername();
+        Long id = gameService.createNewGameForUser(player, true, null, BoardVariant.GOMOKU).getId();
+
+        // x moves behind GameService's back, as if the node died before the CPU search ran
+        engine.update(id, game -> game.makeMove(112));
+        assertEquals("o", engine.get(id).getCurrentPlayer());
+
+        // the next look at the game starts the search
+        gameService.getGame(id);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (engine.get(id).getMoveCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, engine.get(id).getMoveCount());
+        assertEquals("x", engine.get(id).getCurrentPlayer());
+    }
+
+    @Test
+    void shouldDropStaleInMemoryCopyOnVersionConflict() {
+        String player = newUser("stale").getUsername();
+        Long id = gameService.createNewGameForUser(player, true).getId();
+        gameService.makeMove(id, 4, player);
+
+        // someone else writes the row first (e.g. another node), bumping its @Version
+        Game other = gameRepository.findById(id).orElseThrow();
+        other.setStatus("FINISHED");
+        gameRepository.save(other);
+
+        // our flush is now stale: the DB copy wins and the engine reloads it
+        engine.flush();
+        assertEquals("FINISHED", gameService.getGame(id).getStatus());
+        assertEquals(0, gameService.getGame(id).getMoveCount());
+    }
+
+    @Test
+    void shouldPageGamesNewestFirstAndHideOwnOpenGames() {
+        String player = newUser("guest").getUsername();
+        AppUser host = newUser("pager");
+        Long first = gameService.createNewGameForUser(host.getUsername(), false).getId();
+        Long second = gameService.createNewGameForUser(host.getUsername(), false).getId();
+        Long third = gameService.createNewGameForUser(host.getUsername(), false).getId();
+
+        GamePage page = gameService.findGamesForUser(host.getUsername(), null, 2);
+        assertEquals(List.of(third, second), page.games().stream().map(GameSummary::getId).toList());
+        assertEquals(host.getUsername(), page.games().get(0).getPlayerX());
+        assertNotNull(page.next());
+
+        GamePage rest = gameService.findGamesForUser(host.getUsername(), page.next(), 2);
+        assertEquals(List.of(first), rest.games().stream().map(GameSummary::getId).toList());
+        assertNull(rest.next());
+
+        // the host never sees their own WAITING games as joinable, everyone else does
+        assertTrue(gameService.findOpenGames(host.getUsername(), null, 100).games().stream()
+                .noneMatch(g -> host.getUsername().equals(g.getPlayerX())));
+        assertTrue(gameService.findOpenGames(player, null, 100).games().stream()
+                .anyMatch(g -> g.getId().equals(third)));
+
+        // games played as O are listed with the rest
+        Long joined = gameService.createNewGameForUser(player, false).getId();
+        gameService.joinGame(joined, host.getUsername());
+        GamePage latest = gameService.findGamesForUser(host.getUsername(), null, 2);
+        assertEquals(List.of(joined, third), latest.games().stream().map(GameSummary::getId).toList());
+        assertEquals(host.getUsername(), latest.games().get(0).getPlayerO());
+    }
+
+    @Test
+    void shouldRebuildUnflushedMovesFromTheLog() {
+        String player = newUser("replayer").getUsername();
+        Long id = gameService.createNewGameForUser(player, true).getId();
+        gameService.makeMove(id, 4, player);                    // x + CPU reply: log entries 1, 2
+        Game live = gameService.makeMove(id, gameService.getGame(id).firstEmptyCell(), player);
+        gameService.undoMove(id, player);                        // two take-backs
+        live = gameService.getGame(id);
+
+        // no flush yet: the row is still the empty board it was created with
+        Game row = gameRepository.findById(id).orElseThrow();
+        assertEquals(0, row.getMoveCount());
+        assertEquals(6, moveLog.replayTail(row));
+        assertEquals(live.getBoard(), row.getBoard());
+        assertEquals(live.getCurrentPlayer(), row.getCurrentPlayer());
+
+        // replay stops wherever we ask
+        Game firstMove = gameService.replay(id, 1);
+        assertEquals(1, firstMove.getMoveCount());
+        assertTrue(firstMove.hasX(4));
+    }
+
+    @Test
+    void shouldServeFinishedGamesAndUsersFromCache() {
+        String player = newUser("cached").getUsername();
+        Long id = gameService.createNewGameForUser(player, true).getId();
+        Game game = gameService.getGame(id);
+        while (game.getWinner() == null) {
+            game = gameService.makeMove(id, game.firstEmptyCell(), player);
+        }
+
+        double gameHits = hits("games");
+        assertEquals("FINISHED", gameService.getGame(id).getStatus());
+        assertEquals("FINISHED", gameService.getGame(id).getStatus());
+        assertEquals(gameHits + 2, hits("games"));
+
+        // the result evicted the player, the next lookup reloads the new totals and caches them
+        int played = userRepository.findByUsername(player).orElseThrow().getGamesPlayed();
+        double userHits = hits("users");
+        assertEquals(played, userRepository.findByUsername(player).orElseThrow().getGamesPlayed());
+        assertEquals(userHits + 1, hits("users"));
+    }
+
+    @Test
+    void shouldExpireStaleWaitingGames() {
+        String player = newUser("idler").getUsername();
+        Long waiting = gameService.createNewGameForUser(player, false).getId();
+        Long playing = gameService.createNewGameForUser(player, true).getId();
+        gameService.makeMove(playing, 4, player);
+
+        // half an hour on: nobody joined the first one, the second is idle but not for a day yet
+        reaper.expire(LocalDateTime.now().plusHours(1));
+        assertEquals("EXPIRED", gameService.getGame(waiting).getStatus());
+        assertEquals("EXPIRED", gameRepository.findById(waiting).orElseThrow().getStatus());
+        assertEquals("IN_PROGRESS", gameService.getGame(playing).getStatus());
+
+        reaper.expire(LocalDateTime.now().plusDays(2));
+        assertEquals("ABANDONED", gameService.getGame(playing).getStatus());
+        assertThrows(RuntimeException.class, () -> gameService.undoMove(playing, player));
+    }
+
+    @Test
+    void shouldArchiveClosedGamesAndStillServeThem() {
+        String player = newUser("archivist").getUsername();
+        Long id = gameService.createNewGameForUser(player, true).getId();
+        Game game = gameService.getGame(id);
+        while (game.getWinner() == null) {
+            game = gameService.makeMove(id, game.firstEmptyCell(), player);
+        }
+        Game finished = game;
+
+        reaper.archive(LocalDateTime.now().plusDays(8));
+        assertTrue(gameRepository.findById(id).isEmpty());
+        assertEquals("FINISHED", archiveRepository.findById(id).orElseThrow().getStatus());
+
+        // rebuilt from the archive row, not the cache
+        cacheManager.getCache("games").evict(id);
+        Game archived = gameService.getGame(id);
+        assertEquals(finished.getBoard(), archived.getBoard());
+        assertEquals(finished.getWinner(), archived.getWinner());
+        assertEquals(finished.getBoard(), gameService.replay(id, null).getBoard());
+        assertTrue(gameService.findGamesForUser(player, null, 5).games().stream().anyMatch(g -> g.getId().equals(id)));
+        assertThrows(RuntimeException.class, () -> gameService.undoMove(id, player));
+    }
+
+    @Test
+    void shouldForfeitOnTimeAndCountTheResult() throws Exception {
+        String player = newUser("host").getUsername();
+        AppUser guest = newUser("clock");
+        int hostLosses = userRepository.findByUsername(player).orElseThrow().getLosses();
+
+        Long id = gameService.createNewGameForUser(player, false).getId();
+        gameService.joinGame(id, guest.getUsername());
+        gameService.makeMove(id, 4, player); // in time; now o has 400 ms and never moves
+
+        // the result commits with the FINISHED row
+        long deadline = System.currentTimeMillis() + 5000;
+        Game row = gameRepository.findById(id).orElseThrow();
+        while (!"FINISHED".equals(row.getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            row = gameRepository.findById(id).orElseThrow();
+        }
+        assertEquals("x", row.getWinner());
+        assertTrue(row.isTimeForfeit());
+        assertTrue(gameService.getGame(id).isTimeForfeit());
+        assertEquals(1, userRepository.findByUsername(guest.getUsername()).orElseThrow().getLosses());
+        assertEquals(hostLosses, userRepository.findByUsername(player).orElseThrow().getLosses());
+
+        // still lost on time once archived: the game, its replay and the export say so
+        reaper.archive(LocalDateTime.now().plusDays(8));
+        cacheManager.getCache("games").evict(id);
+        Game archived = gameService.getGame(id);
+        assertTrue(archived.isTimeForfeit());
+        assertEquals("x", archived.getWinner());
+        assertTrue(archived.timeLeftMs("o") > 0);
+        assertTrue(gameService.replay(id, null).isTimeForfeit());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(guest.getUsername(), GameExportService.Format.NDJSON, out);
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("\"timeForfeit\":true"));
+
+        // a row archived before moves were kept on the game row still loads, without a board
+        jdbc.update("update game_archive set moves = null where id = ?", id);
+        cacheManager.getCache("games").evict(id);
+        assertEquals(0, gameService.getGame(id).getMoveCount());
+    }
+
+    @Test
+    void shouldMoveLegacyBoardTablesOntoTheGameRow() {
+        Long id = legacyGame(newUser("legacy"), LocalDateTime.now(), 0, 3, 1, 4, 2);
+
+        assertEquals(1, legacyTables.migrate());
+        Game game = gameService.getGame(id);
+        assertEquals(List.of(0, 3, 1, 4, 2), game.getMoveHistory());
+        assertEquals(List.of("x", "x", "x", "o", "o", "-", "-", "-", "-"), game.getBoard());
+        assertEquals(0, legacyTables.migrate()); // both tables are gone
+    }
+
+    @Test
+    void shouldArchiveGamesThatStillHaveLegacyBoardRows() {
+        // tables an old node left behind after the startup migration ran
+        Long id = legacyGame(newUser("legacy-archive"), LocalDateTime.now().minusDays(30), 4, 0, 8, 2, 6);
+
+        reaper.archive(LocalDateTime.now());
+        assertTrue(gameRepository.findById(id).isEmpty());
+        cacheManager.getCache("games").evict(id);
+        assertEquals(List.of(4, 0, 8, 2, 6), gameService.getGame(id).getMoveHistory());
+        assertEquals(0, jdbc.queryForObject("select count(*) from game_move_history", Integer.class));
+        legacyTables.migrate();
+    }
+
+    private double hits(String cache) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", "hit").functionCounter().count();
+    }
+
+    // a finished 3x3 game as the element-collection mapping left it: nothing on the row, the moves
+    // and board in their own tables (recreated here, the migration drops them)
+    private Long legacyGame(AppUser player, LocalDateTime createdAt, int... moves) {
+        jdbc.execute("create table if not exists game_move_history (game_id bigint not null references game(id), move_history integer)");
+        jdbc.execute("create table if not exists game_board (game_id bigint not null references game(id), board varchar(255))");
+        Game game = new Game();
+        game.initialize(Game.CLASSIC_SIZE, Game.CLASSIC_SIZE);
+        game.setPlayerX(player);
+        game.setVsCpu(true);
+        game.setCreatedAt(createdAt);
+        game.setStatus("FINISHED");
+        game.setWinner("x");
+        Long id = gameRepository.save(game).getId();
+        String[] board = {"-", "-", "-", "-", "-", "-", "-", "-", "-"};
+        for (int i = 0; i < moves.length; i++) {
+            jdbc.update("insert into game_move_history (game_id, move_history) values (?, ?)", id, moves[i]);
+            board[moves[i]] = i % 2 == 0 ? "x" : "o";
+        }
+        for (String cell : board) {
+            jdbc.update("insert into game_board (game_id, board) values (?, ?)", id, cell);
+        }
+        return id;
+    }
+
+    private AppUser newUser(String prefix) {
+        AppUser user = new AppUser();
+        user.setUsername(prefix + "-" + System.nanoTime());
+        user.setPassword("x");
+        user.setRole("USER");
+        return userRepository.save(user);
+    }
+}
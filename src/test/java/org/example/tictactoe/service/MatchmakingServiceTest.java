@@ -0,0 +1,78 @@
+package org.example.tictactoe.service;
+
+import org.example.tictactoe.AppUser;
+import org.example.tictactoe.model.BoardVariant;
+import org.example.tictactoe.model.Game;
+import org.example.tictactoe.repository.AppUserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// sweep only when the test asks for it
+@SpringBootTest(properties = {
+        "tictactoe.matchmaking.sweep-interval-ms=3600000",
+        "tictactoe.matchmaking.timeout-ms=100"
+})
+class MatchmakingServiceTest {
+
+    @Autowired
+    private MatchmakingService matchmaking;
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private AppUserRepository userRepository;
+
+    private String newUser(String prefix) {
+        AppUser user = new AppUser();
+        user.setUsername(prefix + "-" + System.nanoTime());
+        user.setPassword("x");
+        user.setRole("USER");
+        return userRepository.save(user).getUsername();
+    }
+
+    @Test
+    void shouldPairTwoQueuedPlayersIntoOneGame() {
+        String first = newUser("mm-a");
+        String second = newUser("mm-b");
+
+        assertEquals("QUEUED", matchmaking.enqueue(first, BoardVariant.FOUR).state());
+        MatchmakingService.MatchStatus matched = matchmaking.enqueue(second, BoardVariant.FOUR);
+        assertEquals("MATCHED", matched.state());
+        assertEquals(matched.gameId(), matchmaking.status(first).gameId());
+
+        // the longer waiter opens as X, both seats filled, nobody left to join
+        Game game = gameService.getGame(matched.gameId());
+        assertEquals("IN_PROGRESS", game.getStatus());
+        assertEquals(first, game.getPlayerX().getUsername());
+        assertEquals(second, game.getPlayerO().getUsername());
+        assertEquals(4, game.getBoardSize());
+    }
+
+    @Test
+    void shouldFallBackToCpuAfterTimeout() throws InterruptedException {
+        String lonely = newUser("mm-c");
+        // a different variant than the other test, so nobody pairs with us
+        assertEquals("QUEUED", matchmaking.enqueue(lonely, BoardVariant.GOMOKU).state());
+
+        Thread.sleep(150);
+        matchmaking.sweep();
+
+        MatchmakingService.MatchStatus status = matchmaking.status(lonely);
+        assertEquals("MATCHED", status.state());
+        assertTrue(status.vsCpu());
+        assertTrue(gameService.getGame(status.gameId()).isVsCpu());
+    }
+
+    @Test
+    void shouldNotPairCancelledTicket() {
+        String quitter = newUser("mm-d");
+        String next = newUser("mm-e");
+
+        matchmaking.enqueue(quitter, BoardVariant.CLASSIC);
+        assertEquals("CANCELLED", matchmaking.cancel(quitter).state());
+        assertEquals("QUEUED", matchmaking.enqueue(next, BoardVariant.CLASSIC).state());
+        matchmaking.cancel(next);
+    }
+}
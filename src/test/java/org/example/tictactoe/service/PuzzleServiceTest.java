@@ -0,0 +1,84 @@
+package org.example.tictactoe.service;
+
+import org.example.tictactoe.AppUser;
+import org.example.tictactoe.model.PuzzleProgress;
+import org.example.tictactoe.puzzle.Puzzle;
+import org.example.tictactoe.puzzle.PuzzleDifficulty;
+import org.example.tictactoe.repository.AppUserRepository;
+import org.example.tictactoe.repository.PuzzleProgressRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// flush only when the test asks for it
+@SpringBootTest(properties = "tictactoe.puzzles.flush-interval-ms=3600000")
+class PuzzleServiceTest {
+
+    @Autowired
+    private PuzzleService puzzles;
+    @Autowired
+    private PuzzleProgressRepository progressRepository;
+    @Autowired
+    private AppUserRepository userRepository;
+
+    @Test
+    void shouldAdvanceOnRightAnswerAndPersistInBatch() {
+        AppUser user = new AppUser();
+        user.setUsername("solver-" + System.nanoTime());
+        user.setPassword("x");
+        user.setRole("USER");
+        String player = userRepository.save(user).getUsername();
+
+        PuzzleService.Current before = puzzles.current(player, PuzzleDifficulty.MEDIUM);
+        Puzzle puzzle = before.puzzle();
+        int wrongCell = Integer.numberOfTrailingZeros(~(puzzle.xMask() | puzzle.oMask() | puzzle.solutions()));
+        int rightCell = Integer.numberOfTrailingZeros(puzzle.solutions());
+
+        PuzzleService.Answer wrong = puzzles.answer(player, puzzle.id(), wrongCell);
+        assertFalse(wrong.correct());
+        assertEquals(puzzle.id(), wrong.next().puzzle().id());
+
+        PuzzleService.Answer right = puzzles.answer(player, puzzle.id(), rightCell);
+        assertTrue(right.correct());
+        assertNotEquals(puzzle.id(), right.next().puzzle().id());
+        assertEquals(before.solved() + 1, right.next().solved());
+        assertEquals(before.attempts() + 2, right.next().attempts());
+
+        Long userId = user.getId();
+        puzzles.flush();
+        PuzzleProgress row = progressRepository.findByUser_IdAndDifficulty(userId, PuzzleDifficulty.MEDIUM).orElseThrow();
+        assertEquals(before.solved() + 1, row.getSolved());
+        assertEquals(before.attempts() + 2, row.getAttempts());
+
+        assertThrows(RuntimeException.class, () -> puzzles.answer(player, -1, 0));
+    }
+
+    @Test
+    void shouldKeepTheRestOfABatchWhenOneRowFails() {
+        AppUser clashing = newUser("clash");
+        AppUser fine = newUser("fine");
+        Puzzle puzzle = puzzles.current(clashing.getUsername(), PuzzleDifficulty.EASY).puzzle();
+        int rightCell = Integer.numberOfTrailingZeros(puzzle.solutions());
+        puzzles.answer(clashing.getUsername(), puzzle.id(), rightCell);
+        puzzles.answer(fine.getUsername(), puzzle.id(), rightCell);
+
+        // another node got the first user's row in first, so inserting ours breaks the unique key
+        progressRepository.save(new PuzzleProgress(clashing, PuzzleDifficulty.EASY));
+        puzzles.flush();
+
+        assertEquals(1, progressRepository.findByUser_IdAndDifficulty(fine.getId(), PuzzleDifficulty.EASY)
+                .orElseThrow().getSolved());
+        // the losing entry was dropped and comes back from the other node's row
+        assertEquals(0, puzzles.current(clashing.getUsername(), PuzzleDifficulty.EASY).solved());
+    }
+
+    private AppUser newUser(String prefix) {
+        AppUser user = new AppUser();
+        user.setUsername(prefix + "-" + System.nanoTime());
+        user.setPassword("x");
+        user.setRole("USER");
+        return userRepository.save(user);
+    }
+}
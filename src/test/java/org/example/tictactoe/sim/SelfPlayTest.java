@@ -0,0 +1,59 @@
+package org.example.tictactoe.sim;
+
+import org.example.tictactoe.model.Game;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SelfPlayTest {
+
+    @Test
+    void perfectPlayNeverLoses() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            SelfPlayResult hard = SelfPlay.run(match("hard", "hard", 100_000, 0), pool, 1000, r -> { });
+            assertEquals(100_000, hard.draws());
+
+            List<SelfPlayResult> reports = new ArrayList<>();
+            SelfPlayResult random = SelfPlay.run(match("random", "hard", 200_000, 1), pool, 1000, reports::add);
+            assertEquals(200_000, random.played());
+            assertEquals(0, random.xWins());
+            assertTrue(random.oWins() > 0);
+            assertEquals(random.played(), Arrays.stream(random.gamesByLength()).sum());
+            assertFalse(reports.isEmpty());
+            assertEquals(random.played(), reports.get(reports.size() - 1).played());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void gamesAllocateNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        SelfPlay.Match match = match("medium", "random", 0, 2);
+        Game game = new Game();
+        game.initialize();
+        for (int i = 0; i < 20_000; i++) {
+            SelfPlay.play(game, match); // warm up
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 200_000; i++) {
+            SelfPlay.play(game, match);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 64 * 1024, allocated + " bytes allocated for 200k games");
+    }
+
+    private static SelfPlay.Match match(String x, String o, long games, int opening) {
+        return new SelfPlay.Match(x, SelfPlayMain.strategy(x), o, SelfPlayMain.strategy(o), games, opening);
+    }
+}